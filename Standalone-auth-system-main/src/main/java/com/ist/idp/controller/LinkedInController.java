@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,9 +15,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 @RestController
 public class LinkedInController {
@@ -34,6 +38,9 @@ public class LinkedInController {
     private String scope;
     @Value("${linkedin.api.authorization-uri}")
     private String authorizationUri;
+    // Used when LinkedIn throttles us without saying for how long
+    @Value("${linkedin.api.default-retry-after-seconds:60}")
+    private long defaultRetryAfterSeconds;
 
     @GetMapping({"/linkedin/authorize", "/linkedin/authorize/"})
     public void initiateAuthorization(HttpServletResponse response, @RequestParam("redirect_uri") String frontendRedirectUri) throws IOException {
@@ -68,8 +75,21 @@ public class LinkedInController {
     @ResponseBody
     public ResponseEntity<?> publishPost(@RequestBody com.ist.idp.dto.request.LinkedInPostRequest request) {
         try {
-            linkedInOAuthService.publishPost(request.getAccessToken(), request.getContent());
-            return ResponseEntity.ok().build();
+            String postUrn = linkedInOAuthService.publishPost(request.getAccessToken(), request.getContent());
+            Map<String, String> body = new HashMap<>();
+            body.put("id", postUrn);
+            return ResponseEntity.ok(body);
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            // Pass the throttle through so the scheduler defers the delivery instead of failing it
+            String retryAfter = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null;
+            logger.warn("LinkedIn rate limit hit, retry after {}", retryAfter);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, retryAfter != null ? retryAfter : String.valueOf(defaultRetryAfterSeconds))
+                    .body(e.getMessage());
+        } catch (HttpClientErrorException e) {
+            // LinkedIn rejected the request itself (e.g. expired token); report it as such, not as an outage
+            logger.warn("LinkedIn rejected post: {}", e.getStatusCode());
+            return ResponseEntity.status(e.getStatusCode()).body(e.getMessage());
         } catch (Exception e) {
             logger.error("Failed to publish post to LinkedIn", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
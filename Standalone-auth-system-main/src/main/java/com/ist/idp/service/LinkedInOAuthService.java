@@ -9,6 +9,7 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -65,7 +66,10 @@ public class LinkedInOAuthService {
         return restTemplate.exchange(url, HttpMethod.GET, entity, LinkedInUserDetails.class).getBody();
     }
 
-    public void publishPost(String accessToken, String content) {
+    /**
+     * Publishes a UGC post and returns its URN as reported in the x-restli-id header (may be null).
+     */
+    public String publishPost(String accessToken, String content) {
         String url = "https://api.linkedin.com/v2/ugcPosts";
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(accessToken);
@@ -81,7 +85,8 @@ public class LinkedInOAuthService {
 
         HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
 
-        restTemplate.postForObject(url, entity, String.class);
+        ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+        return response.getHeaders().getFirst("x-restli-id");
     }
 
     private record LinkedInTokenResponse(
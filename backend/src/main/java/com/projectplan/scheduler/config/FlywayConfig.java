@@ -0,0 +1,35 @@
+package com.projectplan.scheduler.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Runs the Flyway migrations after Hibernate has updated the schema, not before it as
+ * Spring Boot does by default.
+ *
+ * The tables themselves are still created by ddl-auto. The migrations only add what it
+ * cannot express, such as generated columns and indexes built CONCURRENTLY, on top of those
+ * tables, so on a fresh database they have nothing to alter until Hibernate has run.
+ */
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Replaces the migration Spring Boot runs before the EntityManagerFactory with nothing.
+     */
+    @Bean
+    public FlywayMigrationStrategy skipMigrationBeforeHibernate() {
+        return flyway -> {
+        };
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean migrateAfterHibernate(Flyway flyway) {
+        return flyway::migrate;
+    }
+}
@@ -0,0 +1,100 @@
+package com.projectplan.scheduler.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache.
+ *
+ * Workspaces, their member lists, users, memberships and social accounts are read on
+ * almost every request and rarely written, so Hibernate keeps them in in-process Caffeine
+ * caches behind JCache. Every region is declared here with its own size and expiry (see
+ * hibernate-cache.regions in application.yml); Hibernate refuses to start if an entity
+ * names a region that is missing. Writes through Hibernate update the region in the same
+ * instance.
+ *
+ * Rows written with plain JDBC or native SQL bypass the cache, so cached entities must
+ * only be written through Hibernate. Workspace.changeVersion is the exception: it is moved
+ * with JDBC and must be read from the database, never from a cached Workspace.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    // Region names used in the entities' @Cache annotations
+    private static final List<String> REGIONS = List.of(
+            "workspace", "workspace.members", "user", "user-workspace", "social-account");
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final long DEFAULT_MAX_SIZE = 10_000;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate"), getClass().getClassLoader());
+
+        for (String region : REGIONS) {
+            cacheManager.createCache(region, regionConfiguration(environment, region));
+        }
+        cacheManager.createCache(QUERY_RESULTS_REGION, regionConfiguration(environment, "queries"));
+        // Hibernate compares cached query results against these timestamps, one per table; they must never be
+        // evicted or expire, or a stale result would be taken as current
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, configuration(OptionalLong.empty(), OptionalLong.empty()));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Exposes cache.gets, cache.puts, cache.evictions and cache.size per region through the
+     * actuator metrics endpoint, tagged cache=&lt;region&gt;. Hibernate's own per-region hit and
+     * miss counters are published as hibernate.second.level.cache.*.
+     */
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return meterRegistry -> {
+            for (String name : hibernateCacheManager.getCacheNames()) {
+                Cache<?, ?> cache = hibernateCacheManager.getCache(name).unwrap(Cache.class);
+                CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(Environment environment, String region) {
+        String prefix = "hibernate-cache.regions." + region;
+        long maxSize = environment.getProperty(prefix + ".max-size", Long.class, DEFAULT_MAX_SIZE);
+        Duration ttl = environment.getProperty(prefix + ".ttl", Duration.class, DEFAULT_TTL);
+        return configuration(OptionalLong.of(maxSize), OptionalLong.of(ttl.toNanos()));
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(OptionalLong maxSize, OptionalLong expireAfterWriteNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maxSize);
+        configuration.setExpireAfterWrite(expireAfterWriteNanos);
+        // Hibernate stores immutable disassembled state; copying it on every read and write buys nothing
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,101 @@
+package com.projectplan.scheduler.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Shared outbound HTTP client.
+ *
+ * Every RestTemplate in the application goes through one pooled connection manager,
+ * so calls to the same host (Discord, the auth service, LinkedIn) reuse kept-alive
+ * connections instead of paying a TCP + TLS handshake per request.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${http.client.max-total-connections:200}")
+    private int maxTotalConnections;
+
+    @Value("${http.client.max-connections-per-host:50}")
+    private int maxConnectionsPerHost;
+
+    @Value("${http.client.connect-timeout:PT3S}")
+    private Duration connectTimeout;
+
+    @Value("${http.client.read-timeout:PT10S}")
+    private Duration readTimeout;
+
+    @Value("${http.client.connection-request-timeout:PT2S}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${http.client.idle-eviction:PT30S}")
+    private Duration idleEviction;
+
+    @Value("${http.client.connection-ttl:PT5M}")
+    private Duration connectionTtl;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotalConnections)
+                .setMaxConnPerRoute(maxConnectionsPerHost)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                // LIFO keeps the hottest connections busy and lets the rest idle out
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient outboundHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(outboundHttpClient));
+    }
+
+    /**
+     * Exposes httpcomponents.httpclient.pool.* gauges (leased, available, pending, max)
+     * through the actuator metrics endpoint.
+     */
+    @Bean
+    public PoolingHttpClientConnectionManagerMetricsBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager,
+                                                                                    MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManagerMetricsBinder binder =
+                new PoolingHttpClientConnectionManagerMetricsBinder(httpConnectionManager, "outbound");
+        binder.bindTo(meterRegistry);
+        return binder;
+    }
+}
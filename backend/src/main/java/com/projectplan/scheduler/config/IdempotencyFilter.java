@@ -0,0 +1,260 @@
+package com.projectplan.scheduler.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projectplan.scheduler.service.IdempotencyService;
+import com.projectplan.scheduler.service.IdempotencyService.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Makes POST requests under /api idempotent when the client sends an Idempotency-Key header,
+ * e.g. creating or publishing a post. A retry with the same key and body gets the original
+ * response (marked with Idempotent-Replayed: true) without running the request again; a retry
+ * while the first request is still running gets 409, and reusing a key for a different body
+ * gets 422. Server errors are not stored, so the request can be retried after them.
+ *
+ * Keys are scoped to the method and path, the caller and the workspace, so two callers that
+ * happen to pick the same key never see each other's responses. The caller is the authenticated
+ * principal when there is one; otherwise it is the user id the request itself carries
+ * (userId, adminUserId or inviterUserId as a query parameter or top-level JSON field), which
+ * is how this API identifies the acting user.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final List<String> CALLER_FIELDS = List.of("userId", "adminUserId", "inviterUserId");
+    private static final String WORKSPACE_FIELD = "workspaceId";
+    private static final Pattern WORKSPACE_PATH = Pattern.compile("^/api/workspaces/(\\d+)(/|$)");
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/")
+                || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), IDEMPOTENCY_KEY + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String scope = scope(request, cachedRequest.body);
+        String requestHash = sha256(request.getQueryString(), cachedRequest.body);
+        IdempotencyService.Outcome outcome = idempotencyService.begin(key, scope, requestHash);
+
+        switch (outcome) {
+            case IdempotencyService.Replay replay -> writeStored(response, replay.response());
+            case IdempotencyService.InProgress ignored -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+            }
+            case IdempotencyService.Mismatch ignored ->
+                    response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), IDEMPOTENCY_KEY + " was already used for a different request");
+            case IdempotencyService.Proceed proceed -> {
+                ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+                try {
+                    chain.doFilter(cachedRequest, cachedResponse);
+                } catch (IOException | ServletException | RuntimeException e) {
+                    idempotencyService.abandon(proceed.recordId());
+                    throw e;
+                }
+                if (cachedResponse.getStatus() >= 500) {
+                    idempotencyService.abandon(proceed.recordId());
+                } else {
+                    idempotencyService.complete(proceed.recordId(), key, scope, new StoredResponse(
+                            requestHash,
+                            cachedResponse.getStatus(),
+                            new String(cachedResponse.getContentAsByteArray(), StandardCharsets.UTF_8),
+                            cachedResponse.getContentType(),
+                            cachedResponse.getHeader(HttpHeaders.LOCATION)));
+                }
+                cachedResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    /**
+     * e.g. "POST /api/posts caller=u_123 workspace=7"; either part is "-" when the request
+     * does not name one.
+     */
+    private String scope(HttpServletRequest request, byte[] body) {
+        JsonNode json = readJsonObject(request, body);
+        String caller = authenticatedCaller();
+        if (caller == null) {
+            caller = CALLER_FIELDS.stream()
+                    .map(field -> claim(request, json, field))
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+        }
+        Matcher path = WORKSPACE_PATH.matcher(request.getRequestURI());
+        String workspace = path.find() ? path.group(1) : claim(request, json, WORKSPACE_FIELD);
+        return request.getMethod() + " " + request.getRequestURI()
+                + " caller=" + (caller != null ? caller : "-")
+                + " workspace=" + (workspace != null ? workspace : "-");
+    }
+
+    private static String authenticatedCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static String claim(HttpServletRequest request, JsonNode json, String field) {
+        String value = request.getParameter(field);
+        if (value == null && json != null && json.get(field) != null && json.get(field).isValueNode()) {
+            value = json.get(field).asText();
+        }
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private JsonNode readJsonObject(HttpServletRequest request, byte[] body) {
+        if (body.length == 0 || request.getContentType() == null) {
+            return null;
+        }
+        try {
+            if (!MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))) {
+                return null;
+            }
+            JsonNode json = objectMapper.readTree(body);
+            return json != null && json.isObject() ? json : null;
+        } catch (IOException | IllegalArgumentException e) {
+            // Not our job to reject a malformed body; the controller will
+            return null;
+        }
+    }
+
+    private static void writeStored(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        if (stored.body() != null) {
+            byte[] body = stored.body().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private static String sha256(String queryString, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (queryString != null) {
+                digest.update(queryString.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the body up front so it can be hashed and still be read by the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already in memory: it is available now and read at once
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
@@ -48,6 +48,9 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000", "http://localhost:8080"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Let the frontend read where an async publish job can be polled, spot replayed
+        // responses, follow post list pages and see list ETags
+        configuration.setExposedHeaders(Arrays.asList("Location", "Idempotent-Replayed", "X-Next-Cursor", "ETag"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,59 @@
+package com.projectplan.scheduler.controller;
+
+import com.projectplan.scheduler.dto.ReplayDeadLettersRequest;
+import com.projectplan.scheduler.model.PostDelivery;
+import com.projectplan.scheduler.repository.PostDeliveryRepository;
+import com.projectplan.scheduler.service.PublishRetryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/deliveries")
+public class DeliveryController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private PostDeliveryRepository postDeliveryRepository;
+
+    @Autowired
+    private PublishRetryService publishRetryService;
+
+    @GetMapping("/posts/{postId}")
+    public ResponseEntity<List<PostDelivery>> getDeliveriesForPost(@PathVariable Long postId) {
+        return ResponseEntity.ok(postDeliveryRepository.findAllByPostId(postId));
+    }
+
+    /**
+     * Lists deliveries that exhausted their retries or failed permanently, newest first.
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<PostDelivery>> getDeadLetters(
+            @RequestParam Long workspaceId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return ResponseEntity.ok(postDeliveryRepository.findDeadLetters(workspaceId, PageRequest.of(Math.max(page, 0), pageSize)));
+    }
+
+    /**
+     * Puts dead letters back into the retry pipeline, either the listed ids or all of a workspace.
+     */
+    @PostMapping("/dead-letters/replay")
+    public ResponseEntity<Map<String, Integer>> replayDeadLetters(@RequestBody ReplayDeadLettersRequest request) {
+        int requeued;
+        if (request.getDeliveryIds() != null && !request.getDeliveryIds().isEmpty()) {
+            requeued = publishRetryService.replay(request.getDeliveryIds());
+        } else if (request.getWorkspaceId() != null) {
+            requeued = publishRetryService.replayWorkspace(request.getWorkspaceId());
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(Map.of("requeued", requeued));
+    }
+}
@@ -1,33 +1,71 @@
 package com.projectplan.scheduler.controller;
 
+import com.projectplan.scheduler.dto.BulkPostRequest;
+import com.projectplan.scheduler.dto.BulkPostResult;
+import com.projectplan.scheduler.dto.CalendarResponse;
+import com.projectplan.scheduler.dto.CommentCursor;
 import com.projectplan.scheduler.dto.CreateCommentRequest;
 import com.projectplan.scheduler.dto.CreatePostRequest;
+import com.projectplan.scheduler.dto.PostCursor;
+import com.projectplan.scheduler.dto.PostSearchResult;
+import com.projectplan.scheduler.dto.PostSummary;
+import com.projectplan.scheduler.dto.PublishJobResponse;
+import com.projectplan.scheduler.dto.PublishResult;
 import com.projectplan.scheduler.dto.UpdatePostRequest;
 import com.projectplan.scheduler.dto.UpdateStatusRequest;
 import com.projectplan.scheduler.model.Comment;
 import com.projectplan.scheduler.model.Post;
 import com.projectplan.scheduler.model.PostStatus;
+import com.projectplan.scheduler.model.PublishJob;
 import com.projectplan.scheduler.model.SocialAccount;
 import com.projectplan.scheduler.model.Workspace;
 import com.projectplan.scheduler.repository.CommentRepository;
 import com.projectplan.scheduler.repository.PostRepository;
+import com.projectplan.scheduler.repository.PublishJobRepository;
 import com.projectplan.scheduler.repository.SocialAccountRepository;
 import com.projectplan.scheduler.repository.WorkspaceRepository;
+import com.projectplan.scheduler.service.ChangeVersionService;
+import com.projectplan.scheduler.service.DeliveryLedgerService;
+import com.projectplan.scheduler.service.PostQueryService;
+import com.projectplan.scheduler.service.PostSearchService;
+import com.projectplan.scheduler.service.PublishJobService;
+import com.projectplan.scheduler.service.PublishRetryService;
 import com.projectplan.scheduler.service.PublishingService; // Import the new service
+import com.projectplan.scheduler.service.WorkspaceChangeEvent;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List; // Required for List
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;   // Required for Set
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/posts")
 public class PostController {
 
+    private static final int MAX_BULK_SIZE = 500;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Duration MAX_CALENDAR_RANGE = Duration.ofDays(100);
+    private static final int MIN_SEARCH_LENGTH = 2;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private PostRepository postRepository;
 
@@ -43,16 +81,143 @@ public class PostController {
     @Autowired
     private PublishingService publishingService; // Inject PublishingService
 
+    @Autowired
+    private DeliveryLedgerService deliveryLedgerService;
+
+    @Autowired
+    private PublishRetryService publishRetryService;
+
+    @Autowired
+    private PublishJobService publishJobService;
+
+    @Autowired
+    private PublishJobRepository publishJobRepository;
+
+    @Autowired
+    private PostQueryService postQueryService;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    /**
+     * Lists a workspace's posts, newest first, one page at a time.
+     * If there are more posts, the X-Next-Cursor response header carries the cursor
+     * to pass back for the next page.
+     * Pages carry the workspace's ETag; a request with a current If-None-Match gets 304
+     * without any query.
+     */
     @GetMapping
-    public ResponseEntity<List<Post>> getAllPosts(@RequestParam Long workspaceId) {
-        List<Post> posts = postRepository.findAllByWorkspaceIdAndStatusNot(workspaceId, PostStatus.ARCHIVED, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<List<PostSummary>> getAllPosts(@RequestParam Long workspaceId,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                         WebRequest webRequest) {
+        String etag = changeVersionService.workspaceETag(workspaceId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        PostCursor after = cursor != null ? PostCursor.decode(cursor) : null;
+        Pageable page = PageRequest.of(0, pageSize(limit) + 1);
+        List<PostRepository.PostRow> rows = after == null
+                ? postRepository.findPageByWorkspaceIdAndStatusNot(workspaceId, PostStatus.ARCHIVED, page)
+                : postRepository.findPageByWorkspaceIdAndStatusNotAfter(workspaceId, PostStatus.ARCHIVED, after.createdAt(), after.id(), page);
+        return pageResponse(rows, pageSize(limit), etag);
     }
 
     @GetMapping("/archived")
-    public ResponseEntity<List<Post>> getArchivedPosts(@RequestParam Long workspaceId) {
-        List<Post> posts = postRepository.findAllByWorkspaceIdAndStatus(workspaceId, PostStatus.ARCHIVED, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return ResponseEntity.ok(posts);
+    public ResponseEntity<List<PostSummary>> getArchivedPosts(@RequestParam Long workspaceId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                              WebRequest webRequest) {
+        String etag = changeVersionService.workspaceETag(workspaceId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        PostCursor after = cursor != null ? PostCursor.decode(cursor) : null;
+        Pageable page = PageRequest.of(0, pageSize(limit) + 1);
+        List<PostRepository.PostRow> rows = after == null
+                ? postRepository.findPageByWorkspaceIdAndStatus(workspaceId, PostStatus.ARCHIVED, page)
+                : postRepository.findPageByWorkspaceIdAndStatusAfter(workspaceId, PostStatus.ARCHIVED, after.createdAt(), after.id(), page);
+        return pageResponse(rows, pageSize(limit), etag);
+    }
+
+    /**
+     * Posts scheduled in [from, to) for the calendar, e.g. the visible month or week.
+     * With counts=true the response also carries the number of posts per day.
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<CalendarResponse> getCalendar(@RequestParam Long workspaceId,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                        @RequestParam(defaultValue = "false") boolean counts) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(MAX_CALENDAR_RANGE) > 0) {
+            throw new IllegalArgumentException("Calendar range must not exceed " + MAX_CALENDAR_RANGE.toDays() + " days");
+        }
+        return ResponseEntity.ok(postQueryService.toCalendar(workspaceId, from, to, counts));
+    }
+
+    /**
+     * Searches a workspace's posts by content and comment text, newest first, one page at a
+     * time. Optional filters: status, target provider and a [from, to) range on createdAt.
+     * Paged through X-Next-Cursor like the listings.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PostSearchResult>> searchPosts(@RequestParam Long workspaceId,
+                                                              @RequestParam String q,
+                                                              @RequestParam(required = false) PostStatus status,
+                                                              @RequestParam(required = false) String provider,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        String query = q.trim();
+        if (query.length() < MIN_SEARCH_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at least " + MIN_SEARCH_LENGTH + " characters");
+        }
+        PostCursor after = cursor != null ? PostCursor.decode(cursor) : null;
+        int pageSize = pageSize(limit);
+        List<PostSearchResult> results = postSearchService.search(workspaceId, query,
+                new PostSearchService.Filters(status, provider, from, to), after, pageSize + 1);
+        if (results.size() <= pageSize) {
+            return ResponseEntity.ok(results);
+        }
+        PostSearchResult last = results.get(pageSize - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, new PostCursor(last.createdAt(), last.id()).encode())
+                .body(results.subList(0, pageSize));
+    }
+
+    private static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * The page query fetches one row more than requested; if it came back, there is a next page.
+     */
+    private ResponseEntity<List<PostSummary>> pageResponse(List<PostRepository.PostRow> rows, int pageSize, String etag) {
+        // no-cache lets browsers keep the page and revalidate it with If-None-Match
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
+        if (rows.size() <= pageSize) {
+            return response.body(postQueryService.toSummaries(rows));
+        }
+        List<PostRepository.PostRow> page = rows.subList(0, pageSize);
+        PostRepository.PostRow last = page.get(pageSize - 1);
+        return response
+                .header(NEXT_CURSOR_HEADER, new PostCursor(last.getCreatedAt(), last.getId()).encode())
+                .body(postQueryService.toSummaries(page));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
     }
 
     // UPDATED createPost method
@@ -78,10 +243,12 @@ public class PostController {
         }
 
         Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(workspace.getId(), WorkspaceChangeEvent.POST_CREATED, savedPost.getId()));
         return ResponseEntity.status(201).body(savedPost);
     }
 
     @PutMapping("/{postId}")
+    @Transactional
     public ResponseEntity<Post> updatePost(@PathVariable Long postId, @RequestBody UpdatePostRequest request) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found with id: " + postId));
@@ -100,11 +267,14 @@ public class PostController {
                     .toList();
             List<SocialAccount> accounts = socialAccountRepository.findAllById(targetAccountIds);
             post.setTargets(new HashSet<>(accounts));
+            deliveryLedgerService.retainTargets(postId, accounts);
         }
 
         // Revert status to DRAFT if it was PUBLISHED and content changed
         if (originalStatus == PostStatus.PUBLISHED && !originalContent.equals(request.getContent())) {
             post.setStatus(PostStatus.DRAFT);
+            // The edited post is a new revision; every target must receive it again
+            deliveryLedgerService.reset(postId);
         }
 
         // Update status based on scheduling, but don't override a revert to DRAFT
@@ -120,7 +290,10 @@ public class PostController {
             }
         }
 
+        // Stamped here too, since a change of targets alone does not make Hibernate update the row
+        changeVersionService.stamp(post);
         Post updatedPost = postRepository.save(post);
+        publishPostUpdated(updatedPost);
         return ResponseEntity.ok(updatedPost);
     }
 
@@ -134,13 +307,75 @@ public class PostController {
         
         post.setStatus(request.getStatus());
         Post updatedPost = postRepository.save(post);
+        publishPostUpdated(updatedPost);
         return ResponseEntity.ok(updatedPost);
     }
 
+    /**
+     * Sets the status of many posts with one set-based update.
+     * Returns one result per requested id; ids that do not exist are reported as not found.
+     */
+    @PutMapping("/bulk/status")
+    public ResponseEntity<List<BulkPostResult>> updatePostStatuses(@RequestBody BulkPostRequest request) {
+        List<Long> postIds = bulkIds(request);
+        if (postIds == null || request.getStatus() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Set<Long> existing = new HashSet<>(postRepository.findExistingIds(postIds));
+        if (!existing.isEmpty()) {
+            changeVersionService.updatePosts(existing, () -> postRepository.updateStatuses(existing, request.getStatus()));
+            for (Long workspaceId : postRepository.findWorkspaceIds(existing)) {
+                eventPublisher.publishEvent(new WorkspaceChangeEvent(workspaceId, WorkspaceChangeEvent.POSTS_UPDATED, null));
+            }
+        }
+        List<BulkPostResult> results = postIds.stream()
+                .map(id -> existing.contains(id)
+                        ? new BulkPostResult(id, true, request.getStatus(), null, null)
+                        : BulkPostResult.notFound(id))
+                .toList();
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Queues a publish job for each post and returns 202 with the job id per post.
+     * The outbound calls run on the publish job workers; follow each job at
+     * GET /api/publish-jobs/{jobId}.
+     */
+    @PostMapping("/bulk/publish-jobs")
+    public ResponseEntity<List<BulkPostResult>> createPublishJobs(@RequestBody BulkPostRequest request) {
+        List<Long> postIds = bulkIds(request);
+        if (postIds == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Long> existing = postRepository.findExistingIds(postIds);
+        Map<Long, PublishJob> jobs = existing.isEmpty() ? Map.of() : publishJobService.enqueueAll(existing);
+        List<BulkPostResult> results = postIds.stream()
+                .map(id -> jobs.containsKey(id)
+                        ? new BulkPostResult(id, true, null, jobs.get(id).getId(), null)
+                        : BulkPostResult.notFound(id))
+                .toList();
+        return ResponseEntity.accepted().body(results);
+    }
+
+    /**
+     * Distinct ids of a bulk request, or null if the request is empty or too large.
+     */
+    private static List<Long> bulkIds(BulkPostRequest request) {
+        if (request.getPostIds() == null || request.getPostIds().isEmpty()) {
+            return null;
+        }
+        List<Long> postIds = request.getPostIds().stream().filter(Objects::nonNull).distinct().toList();
+        return postIds.isEmpty() || postIds.size() > MAX_BULK_SIZE ? null : postIds;
+    }
+
     /**
      * Publishes a post to its target social media channels.
+     * Targets that fail are left to the retry pipeline; the post stays PUBLISHING until they
+     * succeed or are dead-lettered, so calling this again does not re-send anything early.
      * @param postId The ID of the post to publish.
-     * @return The updated post with status PUBLISHED.
+     * @return 200 with the post once every target has it; 202 with the per-target outcomes if
+     *         some targets were only deferred (rate limited, circuit open, waiting for a retry)
+     *         and will be sent by the retry pipeline; 500 with the errors if a send failed.
      */
     @PostMapping("/{postId}/publish")
     public ResponseEntity<?> publishPost(@PathVariable Long postId) {
@@ -148,29 +383,90 @@ public class PostController {
                 .orElseThrow(() -> new RuntimeException("Post not found with id: " + postId));
 
         try {
-            // Use the service to handle the publishing logic
-            publishingService.publishPost(post);
-
-            // Update the post's status to PUBLISHED
-            post.setStatus(PostStatus.PUBLISHED);
-            Post updatedPost = postRepository.save(post);
+            publishRetryService.startPublishing(post);
+            PublishResult result = publishingService.publishToTargets(post);
+            publishRetryService.settle(post);
 
-            return ResponseEntity.ok(updatedPost);
+            if (!result.failures().isEmpty()) {
+                String errors = result.failures().stream()
+                        .map(PublishResult.TargetOutcome::error)
+                        .collect(Collectors.joining("; "));
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errors);
+            }
+            if (!result.allSucceeded()) {
+                return ResponseEntity.accepted().body(result);
+            }
+            return ResponseEntity.ok(post);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
         }
     }
 
+    /**
+     * Queues a publish of the post and returns at once with 202 and the job's URL.
+     * Poll GET /api/publish-jobs/{jobId} for per-target progress. If the post already has a
+     * queued or running job, that job is returned.
+     */
+    @PostMapping("/{postId}/publish-jobs")
+    public ResponseEntity<PublishJobResponse> createPublishJob(@PathVariable Long postId) {
+        if (!postRepository.existsById(postId)) {
+            return ResponseEntity.notFound().build();
+        }
+        PublishJob job = publishJobService.enqueue(postId);
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/publish-jobs/{jobId}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(publishJobService.toResponse(job));
+    }
+
     @DeleteMapping("/{postId}")
     public ResponseEntity<Void> deletePost(@PathVariable Long postId) {
         if (!postRepository.existsById(postId)) {
             return ResponseEntity.notFound().build();
         }
+        Long workspaceId = postRepository.findWorkspaceId(postId).orElse(null);
+        deliveryLedgerService.reset(postId);
+        publishJobRepository.deleteByPostId(postId);
         postRepository.deleteById(postId);
+        if (workspaceId != null) {
+            eventPublisher.publishEvent(new WorkspaceChangeEvent(workspaceId, WorkspaceChangeEvent.POST_DELETED, postId));
+        }
         return ResponseEntity.noContent().build();
     }
 
+    private void publishPostUpdated(Post post) {
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(post.getWorkspace().getId(), WorkspaceChangeEvent.POST_UPDATED, post.getId()));
+    }
+
+    /**
+     * A post's comments, oldest first, one page at a time. Like the post listings, the
+     * X-Next-Cursor response header carries the cursor for the next page if there is one.
+     */
+    @GetMapping("/{postId}/comments")
+    public ResponseEntity<List<Comment>> getComments(@PathVariable Long postId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (!postRepository.existsById(postId)) {
+            return ResponseEntity.notFound().build();
+        }
+        CommentCursor after = cursor != null ? CommentCursor.decode(cursor) : null;
+        int pageSize = pageSize(limit);
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<Comment> comments = after == null
+                ? commentRepository.findPageByPostId(postId, page)
+                : commentRepository.findPageByPostIdAfter(postId, after.createdAt(), after.id(), page);
+        if (comments.size() <= pageSize) {
+            return ResponseEntity.ok(comments);
+        }
+        Comment last = comments.get(pageSize - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, new CommentCursor(last.getCreatedAt(), last.getId()).encode())
+                .body(comments.subList(0, pageSize));
+    }
+
     @PostMapping("/{postId}/comments")
+    @Transactional
     public ResponseEntity<Comment> createComment(
             @PathVariable Long postId,
             @RequestBody CreateCommentRequest request) {
@@ -184,6 +480,8 @@ public class PostController {
         comment.setPost(post);
         
         Comment savedComment = commentRepository.save(comment);
+        postRepository.incrementCommentCount(postId);
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(post.getWorkspace().getId(), WorkspaceChangeEvent.COMMENT_CREATED, postId));
         return ResponseEntity.status(201).body(savedComment);
     }
-}
\ No newline at end of file
+}
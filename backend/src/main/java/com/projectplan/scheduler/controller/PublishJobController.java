@@ -0,0 +1,25 @@
+package com.projectplan.scheduler.controller;
+
+import com.projectplan.scheduler.dto.PublishJobResponse;
+import com.projectplan.scheduler.service.PublishJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/publish-jobs")
+public class PublishJobController {
+
+    @Autowired
+    private PublishJobService publishJobService;
+
+    /**
+     * Status of an asynchronous publish, including the delivery state of every target.
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<PublishJobResponse> getPublishJob(@PathVariable Long jobId) {
+        return publishJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -2,17 +2,21 @@ package com.projectplan.scheduler.controller;
 
 import com.projectplan.scheduler.dto.CreateChannelRequest;
 import com.projectplan.scheduler.dto.UpdateChannelRequest;
-import com.projectplan.scheduler.model.Post;
 import com.projectplan.scheduler.model.SocialAccount;
 import com.projectplan.scheduler.model.SocialAccountStatus;
 import com.projectplan.scheduler.model.Workspace;
-import com.projectplan.scheduler.repository.PostRepository;
 import com.projectplan.scheduler.repository.SocialAccountRepository;
 import com.projectplan.scheduler.repository.WorkspaceRepository;
+import com.projectplan.scheduler.service.ChangeVersionService;
+import com.projectplan.scheduler.service.SocialAccountDeletionService;
+import com.projectplan.scheduler.service.SocialAccountQueryService;
+import com.projectplan.scheduler.service.WorkspaceChangeEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,34 +28,49 @@ public class SocialAccountController {
     private SocialAccountRepository socialAccountRepository;
 
     @Autowired
-    private PostRepository postRepository;
+    private WorkspaceRepository workspaceRepository;
 
     @Autowired
-    private WorkspaceRepository workspaceRepository;
+    private SocialAccountQueryService socialAccountQueryService;
+
+    @Autowired
+    private SocialAccountDeletionService socialAccountDeletionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
 
     /**
      * Handles GET requests to /api/social-accounts.
-     * Fetches all SocialAccount entities from the database.
+     * Fetches the workspace's SocialAccounts, optionally only those with the given status.
+     * Served from a per-workspace cache, or answered with 304 if If-None-Match carries the
+     * workspace's current ETag.
      *
      * @return A ResponseEntity containing a list of SocialAccounts and an OK status.
      */
     @GetMapping
     public ResponseEntity<List<SocialAccount>> getAllSocialAccounts(
             @RequestParam Long workspaceId,
-            @RequestParam(required = false) String status) {
-        List<SocialAccount> accounts = socialAccountRepository.findAll().stream()
-                .filter(account -> account.getWorkspace().getId().equals(workspaceId))
-                .toList();
-
+            @RequestParam(required = false) String status,
+            WebRequest webRequest) {
+        SocialAccountStatus statusEnum = null;
         if (status != null) {
             try {
-                SocialAccountStatus statusEnum = SocialAccountStatus.valueOf(status.toUpperCase());
-                accounts = accounts.stream().filter(account -> account.getStatus() == statusEnum).toList();
+                statusEnum = SocialAccountStatus.valueOf(status.toUpperCase());
             } catch (IllegalArgumentException e) {
                 return ResponseEntity.badRequest().build();
             }
         }
-        return ResponseEntity.ok(accounts);
+        String etag = changeVersionService.workspaceETag(workspaceId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(socialAccountQueryService.findByWorkspace(workspaceId, statusEnum));
     }
 
     /**
@@ -72,6 +91,8 @@ public class SocialAccountController {
         account.setStatus(SocialAccountStatus.DISCONNECTED);
         account.setWorkspace(workspace);
         SocialAccount savedAccount = socialAccountRepository.save(account);
+        socialAccountQueryService.evictWorkspace(workspace.getId());
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(workspace.getId(), WorkspaceChangeEvent.CHANNEL_CHANGED, savedAccount.getId()));
         return ResponseEntity.status(201).body(savedAccount);
     }
 
@@ -89,6 +110,8 @@ public class SocialAccountController {
                 .orElseThrow(() -> new RuntimeException("Social Account not found with id: " + id));
         account.setName(request.getName());
         SocialAccount updatedAccount = socialAccountRepository.save(account);
+        socialAccountQueryService.evictWorkspace(account.getWorkspace().getId());
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(account.getWorkspace().getId(), WorkspaceChangeEvent.CHANNEL_CHANGED, id));
         return ResponseEntity.ok(updatedAccount);
     }
 
@@ -104,6 +127,8 @@ public class SocialAccountController {
         account.setExpiresAt(null);
 
         SocialAccount updatedAccount = socialAccountRepository.save(account);
+        socialAccountQueryService.evictWorkspace(account.getWorkspace().getId());
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(account.getWorkspace().getId(), WorkspaceChangeEvent.CHANNEL_CHANGED, id));
         return ResponseEntity.ok(updatedAccount);
     }
 
@@ -117,6 +142,8 @@ public class SocialAccountController {
         account.setStatus(SocialAccountStatus.CONNECTED);
 
         SocialAccount updatedAccount = socialAccountRepository.save(account);
+        socialAccountQueryService.evictWorkspace(account.getWorkspace().getId());
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(account.getWorkspace().getId(), WorkspaceChangeEvent.CHANNEL_CHANGED, id));
         return ResponseEntity.ok(updatedAccount);
     }
 
@@ -125,30 +152,16 @@ public class SocialAccountController {
      * Disconnects a social account by its ID.
      *
      * @param id The ID of the social account to disconnect.
-     * @return A ResponseEntity with no content and a status indicating the outcome.
+     * @return 204 once the account is gone, or 202 if it is used by so many posts that it is
+     *         hidden at once and detached from them in the background.
      */
     @DeleteMapping("/{id}")
-    @Transactional
     public ResponseEntity<Void> deleteSocialAccount(@PathVariable Long id) {
-        SocialAccount accountToDelete = socialAccountRepository.findById(id).orElse(null);
-
-        if (accountToDelete == null) {
-            return ResponseEntity.notFound().build();
-        }
-
-        // Find all posts that target this account
-        List<Post> postsToUpdate = postRepository.findAllByTargetsContains(accountToDelete);
-
-        // Remove the account from each post's target set
-        for (Post post : postsToUpdate) {
-            post.getTargets().remove(accountToDelete);
-            postRepository.save(post);
-        }
-
-        // Now it's safe to delete the account
-        socialAccountRepository.delete(accountToDelete);
-
-        return ResponseEntity.noContent().build();
+        return switch (socialAccountDeletionService.delete(id)) {
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case DELETED -> ResponseEntity.noContent().build();
+            case DELETING -> ResponseEntity.accepted().build();
+        };
     }
 
     // You could add other endpoints here later, like:
@@ -1,8 +1,7 @@
 package com.projectplan.scheduler.controller;
 
 import com.projectplan.scheduler.dto.UserDto;
-import com.projectplan.scheduler.model.User;
-import com.projectplan.scheduler.repository.UserRepository;
+import com.projectplan.scheduler.service.UserSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,24 +10,21 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     @Autowired
-    private UserRepository userRepository;
+    private UserSearchService userSearchService;
 
+    /**
+     * Typeahead for the invite dialog: at most {@code limit} users whose name or email
+     * matches, best matches first.
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<UserDto>> searchUsers(@RequestParam String query) {
-        if (query == null || query.trim().length() < 2) {
-            return ResponseEntity.ok(List.of());
-        }
-        List<User> users = userRepository.findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(query, query);
-        List<UserDto> userDtos = users.stream()
-                .map(user -> new UserDto(user.getId(), user.getName(), user.getEmail(), user.getImage()))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(userDtos);
+    public ResponseEntity<List<UserDto>> searchUsers(@RequestParam String query,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userSearchService.search(query, limit));
     }
 }
@@ -0,0 +1,39 @@
+package com.projectplan.scheduler.controller;
+
+import com.projectplan.scheduler.dto.WorkspaceChanges;
+import com.projectplan.scheduler.service.ChangeFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/workspaces")
+public class WorkspaceChangesController {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    /**
+     * Posts, comments, channels and members inserted, updated or deleted since the given
+     * version, for clients that keep a local copy of the workspace. Start from since=0 for
+     * everything, or without since to get just the current version; then pass the returned
+     * version back, e.g. whenever the event stream reports a change.
+     */
+    @GetMapping("/{workspaceId}/changes")
+    public ResponseEntity<WorkspaceChanges> getChanges(@PathVariable Long workspaceId,
+                                                       @RequestParam(required = false) Long since) {
+        return changeFeedService.changesSince(workspaceId, since)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -4,20 +4,29 @@ import com.projectplan.scheduler.dto.CreateWorkspaceRequest;
 import com.projectplan.scheduler.dto.InviteUserRequest;
 import com.projectplan.scheduler.dto.UpdateUserRoleRequest;
 import com.projectplan.scheduler.dto.UpdateWorkspaceRequest;
+import com.projectplan.scheduler.dto.WorkspaceSummary;
 import com.projectplan.scheduler.model.User;
 import com.projectplan.scheduler.model.UserRole;
 import com.projectplan.scheduler.model.UserWorkspace;
 import com.projectplan.scheduler.model.Workspace;
-import com.projectplan.scheduler.repository.PostRepository;
-import com.projectplan.scheduler.repository.SocialAccountRepository;
+import com.projectplan.scheduler.model.WorkspaceDeletion;
 import com.projectplan.scheduler.repository.UserRepository;
 import com.projectplan.scheduler.repository.UserWorkspaceRepository;
 import com.projectplan.scheduler.repository.WorkspaceRepository;
+import com.projectplan.scheduler.service.MembershipChangedEvent;
+import com.projectplan.scheduler.service.MembershipService;
+import com.projectplan.scheduler.service.WorkspacePurgeService;
+import com.projectplan.scheduler.service.WorkspaceRenamedEvent;
+import com.projectplan.scheduler.service.WorkspaceSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 import java.util.Map;
@@ -33,56 +42,49 @@ public class WorkspaceController {
     private UserRepository userRepository;
 
     @Autowired
-    private PostRepository postRepository;
+    private UserWorkspaceRepository userWorkspaceRepository;
 
     @Autowired
-    private SocialAccountRepository socialAccountRepository;
+    private MembershipService membershipService;
 
     @Autowired
-    private UserWorkspaceRepository userWorkspaceRepository;
+    private WorkspaceSummaryService workspaceSummaryService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private WorkspacePurgeService workspacePurgeService;
+
+    /**
+     * Called on every page load. Returns summaries of the user's workspaces from a per-user
+     * cache; the user row is only written when the profile sent differs from the last one
+     * synced, and a default workspace is only created for a user who has none.
+     * Unchanged summaries are answered with 304 when If-None-Match carries their ETag.
+     */
     @GetMapping
-    @Transactional
-    public ResponseEntity<List<Workspace>> getWorkspacesForUser(
+    public ResponseEntity<List<WorkspaceSummary>> getWorkspacesForUser(
             @RequestParam String userId,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String email,
-            @RequestParam(required = false) String image) {
-        // Find user or create if they don't exist in our backend yet
-        User user = userRepository.findById(userId).orElseGet(() -> {
-            User newUser = new User();
-            newUser.setId(userId);
-            newUser.setName(name);
-            newUser.setEmail(email);
-            newUser.setImage(image);
-            return userRepository.save(newUser);
-        });
-
-        // If user exists, but details are missing, update them
-        if ((user.getName() == null && name != null) || (user.getEmail() == null && email != null)) {
-            user.setName(name);
-            user.setEmail(email);
-            user.setImage(image);
-            userRepository.save(user);
+            @RequestParam(required = false) String image,
+            WebRequest webRequest) {
+        WorkspaceSummaryService.Summaries summaries = workspaceSummaryService.bootstrap(userId, name, email, image);
+        if (webRequest.checkNotModified(summaries.etag())) {
+            return null;
         }
+        return ResponseEntity.ok()
+                .eTag(summaries.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(summaries.workspaces());
+    }
 
-        List<Workspace> workspaces = workspaceRepository.findByUserWorkspaces_User_Id(userId);
-
-        // If the user has no workspaces, create a default one
-        if (workspaces.isEmpty()) {
-            Workspace newWorkspace = new Workspace();
-            newWorkspace.setName("My First Workspace");
-
-            UserWorkspace userWorkspace = new UserWorkspace();
-            userWorkspace.setUser(user);
-            userWorkspace.setWorkspace(newWorkspace);
-            userWorkspace.setRole(UserRole.ADMINISTRATOR);
-
-            newWorkspace.getUserWorkspaces().add(userWorkspace);
-            workspaces.add(workspaceRepository.save(newWorkspace));
+    @GetMapping("/{workspaceId}/members")
+    public ResponseEntity<List<UserWorkspace>> getMembers(@PathVariable Long workspaceId) {
+        if (!workspaceRepository.existsById(workspaceId)) {
+            return ResponseEntity.notFound().build();
         }
-
-        return ResponseEntity.ok(workspaces);
+        return ResponseEntity.ok(userWorkspaceRepository.findMembersWithUser(workspaceId));
     }
 
     @PostMapping
@@ -102,38 +104,35 @@ public class WorkspaceController {
         newWorkspace.getUserWorkspaces().add(userWorkspace);
 
         Workspace savedWorkspace = workspaceRepository.save(newWorkspace);
+        eventPublisher.publishEvent(new MembershipChangedEvent(savedWorkspace.getId(), user.getId()));
         return ResponseEntity.status(201).body(savedWorkspace);
     }
 
     @PutMapping("/{workspaceId}")
     @Transactional
     public ResponseEntity<Workspace> updateWorkspace(@PathVariable Long workspaceId, @RequestBody UpdateWorkspaceRequest request) {
-        Workspace workspace = workspaceRepository.findById(workspaceId)
-                .orElseThrow(() -> new RuntimeException("Workspace not found with id: " + workspaceId));
-
         // Permission check
-        boolean isAdmin = workspace.getUserWorkspaces().stream()
-                .anyMatch(uw -> uw.getUser().getId().equals(request.getUserId()) && uw.getRole() == UserRole.ADMINISTRATOR);
-
-        if (!isAdmin) {
+        if (!membershipService.isAdmin(request.getUserId(), workspaceId)) {
             return ResponseEntity.status(403).build(); // Forbidden
         }
 
+        Workspace workspace = workspaceRepository.findById(workspaceId)
+                .orElseThrow(() -> new RuntimeException("Workspace not found with id: " + workspaceId));
         workspace.setName(request.getName());
         Workspace updatedWorkspace = workspaceRepository.save(workspace);
+        eventPublisher.publishEvent(new WorkspaceRenamedEvent(workspaceId));
         return ResponseEntity.ok(updatedWorkspace);
     }
 
     @PostMapping("/{workspaceId}/members")
     @Transactional
     public ResponseEntity<UserWorkspace> inviteUserToWorkspace(@PathVariable Long workspaceId, @RequestBody InviteUserRequest request) {
-        Workspace workspace = workspaceRepository.findById(workspaceId)
-                .orElseThrow(() -> new RuntimeException("Workspace not found"));
+        if (!workspaceRepository.existsById(workspaceId)) {
+            throw new RuntimeException("Workspace not found");
+        }
 
         // 1. Check if inviter is an admin
-        boolean isInviterAdmin = workspace.getUserWorkspaces().stream()
-                .anyMatch(uw -> uw.getUser().getId().equals(request.getInviterUserId()) && uw.getRole() == UserRole.ADMINISTRATOR);
-        if (!isInviterAdmin) {
+        if (!membershipService.isAdmin(request.getInviterUserId(), workspaceId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -142,32 +141,30 @@ public class WorkspaceController {
                 .orElseThrow(() -> new RuntimeException("User with email " + request.getEmail() + " not found."));
 
         // 3. Check if user is already a member
-        boolean isAlreadyMember = workspace.getUserWorkspaces().stream()
-                .anyMatch(uw -> uw.getUser().getId().equals(userToInvite.getId()));
-        if (isAlreadyMember) {
+        if (membershipService.isMember(userToInvite.getId(), workspaceId)) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build(); // Conflict
         }
 
         // 4. Create and save the new membership
         UserWorkspace newUserWorkspace = new UserWorkspace();
         newUserWorkspace.setUser(userToInvite);
-        newUserWorkspace.setWorkspace(workspace);
+        newUserWorkspace.setWorkspace(workspaceRepository.getReferenceById(workspaceId));
         newUserWorkspace.setRole(request.getRole());
 
         UserWorkspace savedUserWorkspace = userWorkspaceRepository.save(newUserWorkspace);
+        eventPublisher.publishEvent(new MembershipChangedEvent(workspaceId, userToInvite.getId()));
         return ResponseEntity.status(HttpStatus.CREATED).body(savedUserWorkspace);
     }
 
     @PutMapping("/{workspaceId}/members/{memberUserId}")
     @Transactional
     public ResponseEntity<Object> updateUserRole(@PathVariable Long workspaceId, @PathVariable String memberUserId, @RequestBody UpdateUserRoleRequest request) {
-        Workspace workspace = workspaceRepository.findById(workspaceId)
-                .orElseThrow(() -> new RuntimeException("Workspace not found"));
+        if (!workspaceRepository.existsById(workspaceId)) {
+            throw new RuntimeException("Workspace not found");
+        }
 
         // 1. Check if requester is an admin
-        boolean isAdmin = workspace.getUserWorkspaces().stream()
-                .anyMatch(uw -> uw.getUser().getId().equals(request.getAdminUserId()) && uw.getRole() == UserRole.ADMINISTRATOR);
-        if (!isAdmin) {
+        if (!membershipService.isAdmin(request.getAdminUserId(), workspaceId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -177,10 +174,7 @@ public class WorkspaceController {
 
         // 3. Prevent removing the last admin
         if (userWorkspaceToUpdate.getRole() == UserRole.ADMINISTRATOR && request.getRole() != UserRole.ADMINISTRATOR) {
-            long adminCount = workspace.getUserWorkspaces().stream()
-                    .filter(uw -> uw.getRole() == UserRole.ADMINISTRATOR)
-                    .count();
-            if (adminCount <= 1) {
+            if (membershipService.countAdmins(workspaceId) <= 1) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", "You cannot demote the last administrator."));
             }
         }
@@ -188,19 +182,19 @@ public class WorkspaceController {
         // 4. Update and save
         userWorkspaceToUpdate.setRole(request.getRole());
         UserWorkspace updatedUserWorkspace = userWorkspaceRepository.save(userWorkspaceToUpdate);
+        eventPublisher.publishEvent(new MembershipChangedEvent(workspaceId, memberUserId));
         return ResponseEntity.ok(updatedUserWorkspace);
     }
 
     @DeleteMapping("/{workspaceId}/members/{memberUserId}")
     @Transactional
     public ResponseEntity<Object> removeUserFromWorkspace(@PathVariable Long workspaceId, @PathVariable String memberUserId, @RequestParam String adminUserId) {
-        Workspace workspace = workspaceRepository.findById(workspaceId)
-                .orElseThrow(() -> new RuntimeException("Workspace not found"));
+        if (!workspaceRepository.existsById(workspaceId)) {
+            throw new RuntimeException("Workspace not found");
+        }
 
         // 1. Check if requester is an admin
-        boolean isAdmin = workspace.getUserWorkspaces().stream()
-                .anyMatch(uw -> uw.getUser().getId().equals(adminUserId) && uw.getRole() == UserRole.ADMINISTRATOR);
-        if (!isAdmin) {
+        if (!membershipService.isAdmin(adminUserId, workspaceId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -210,10 +204,7 @@ public class WorkspaceController {
 
         // 3. Prevent removing the last admin
         if (userWorkspaceToRemove.getRole() == UserRole.ADMINISTRATOR) {
-            long adminCount = workspace.getUserWorkspaces().stream()
-                    .filter(uw -> uw.getRole() == UserRole.ADMINISTRATOR)
-                    .count();
-            if (adminCount <= 1) {
+            if (membershipService.countAdmins(workspaceId) <= 1) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", "You cannot remove the last administrator from a workspace."));
             }
         }
@@ -225,24 +216,28 @@ public class WorkspaceController {
 
         // 5. Delete the membership
         userWorkspaceRepository.deleteById(userWorkspaceToRemove.getId());
+        eventPublisher.publishEvent(new MembershipChangedEvent(workspaceId, memberUserId));
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Marks the workspace deleted and answers 202 at once; it disappears from every listing
+     * right away. Its posts, channels and members are purged in the background; poll
+     * GET /api/workspaces/{workspaceId}/deletion for progress.
+     */
     @DeleteMapping("/{workspaceId}")
-    @Transactional
-    public ResponseEntity<Void> deleteWorkspace(@PathVariable Long workspaceId) {
-        if (!workspaceRepository.existsById(workspaceId)) {
-            return ResponseEntity.notFound().build();
-        }
-
-        // Delete associated entities first to avoid constraint violations
-        postRepository.deleteByWorkspaceId(workspaceId);
-        socialAccountRepository.deleteAll(socialAccountRepository.findAllByWorkspaceId(workspaceId));
-        userWorkspaceRepository.deleteByWorkspaceId(workspaceId);
-
-        // Now delete the workspace
-        workspaceRepository.deleteById(workspaceId);
+    public ResponseEntity<WorkspaceDeletion> deleteWorkspace(@PathVariable Long workspaceId) {
+        return workspacePurgeService.delete(workspaceId)
+                .map(deletion -> ResponseEntity.accepted()
+                        .location(ServletUriComponentsBuilder.fromCurrentRequestUri().path("/deletion").build().toUri())
+                        .body(deletion))
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        return ResponseEntity.noContent().build();
+    @GetMapping("/{workspaceId}/deletion")
+    public ResponseEntity<WorkspaceDeletion> getDeletion(@PathVariable Long workspaceId) {
+        return workspacePurgeService.getDeletion(workspaceId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 }
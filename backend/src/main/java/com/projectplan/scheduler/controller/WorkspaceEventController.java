@@ -0,0 +1,59 @@
+package com.projectplan.scheduler.controller;
+
+import com.projectplan.scheduler.repository.WorkspaceRepository;
+import com.projectplan.scheduler.service.MembershipService;
+import com.projectplan.scheduler.service.WorkspaceEventHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/workspaces")
+public class WorkspaceEventController {
+
+    @Autowired
+    private WorkspaceRepository workspaceRepository;
+
+    @Autowired
+    private MembershipService membershipService;
+
+    @Autowired
+    private WorkspaceEventHub workspaceEventHub;
+
+    /**
+     * Server-Sent Events stream of changes in a workspace (posts, comments, channels,
+     * members). Event names are the WorkspaceChangeEvent types, plus "resync" when the
+     * client fell behind and should reload everything. Only members of the workspace may
+     * subscribe; the stream is closed once the user is no longer one.
+     */
+    @GetMapping(value = "/{workspaceId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@PathVariable Long workspaceId, @RequestParam String userId) {
+        if (!workspaceRepository.existsById(workspaceId)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!membershipService.isMember(userId, workspaceId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                // Stops nginx-style proxies from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(workspaceEventHub.subscribe(workspaceId, userId));
+    }
+
+    @ExceptionHandler(WorkspaceEventHub.TooManySubscribersException.class)
+    public ResponseEntity<String> handleTooManySubscribers(WorkspaceEventHub.TooManySubscribersException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(e.getMessage());
+    }
+}
@@ -0,0 +1,12 @@
+package com.projectplan.scheduler.dto;
+
+import com.projectplan.scheduler.model.PostStatus;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkPostRequest {
+    private List<Long> postIds;
+    private PostStatus status; // Only used by the bulk status update
+}
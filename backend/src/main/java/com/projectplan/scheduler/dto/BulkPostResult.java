@@ -0,0 +1,13 @@
+package com.projectplan.scheduler.dto;
+
+import com.projectplan.scheduler.model.PostStatus;
+
+/**
+ * Outcome of one post in a bulk request. {@code jobId} is only set by bulk publish.
+ */
+public record BulkPostResult(Long postId, boolean success, PostStatus status, Long jobId, String error) {
+
+    public static BulkPostResult notFound(Long postId) {
+        return new BulkPostResult(postId, false, null, null, "Post not found with id: " + postId);
+    }
+}
@@ -0,0 +1,26 @@
+package com.projectplan.scheduler.dto;
+
+import com.projectplan.scheduler.model.PostStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Posts scheduled in a calendar range. {@code truncated} is true when the range holds more
+ * posts than the slot cap and only the earliest ones are listed. {@code dayCounts} is only
+ * filled when requested, e.g. for month views that show totals per day, and always covers
+ * the whole range.
+ */
+public record CalendarResponse(List<Slot> slots, boolean truncated, List<DayCount> dayCounts) {
+
+    /**
+     * {@code title} is the first 50 characters of the post; {@code providers} are the
+     * distinct providers of its targets, for the channel icons.
+     */
+    public record Slot(Long id, PostStatus status, LocalDateTime scheduledAt, String title, List<String> providers) {
+    }
+
+    public record DayCount(LocalDate date, long count) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.projectplan.scheduler.dto;
+
+import com.projectplan.scheduler.model.DeliveryStatus;
+
+/**
+ * Read-only snapshot of a PostDelivery row. Publishing works on snapshots rather than
+ * managed entities so that ledger state is always read fresh and never flushed back.
+ */
+public record DeliveryState(Long id, Long socialAccountId, DeliveryStatus status, int attempts, String providerMessageId) {
+}
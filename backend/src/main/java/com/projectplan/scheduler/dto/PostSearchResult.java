@@ -0,0 +1,19 @@
+package com.projectplan.scheduler.dto;
+
+import com.projectplan.scheduler.model.PostStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A post matching a search. The highlights are HTML excerpts: the text is escaped and the
+ * matched terms are wrapped in {@code <mark>...</mark>}, the only markup they contain.
+ * {@code commentHighlight} is the first matching comment, or null if only the post itself
+ * matched.
+ */
+public record PostSearchResult(Long id,
+                               PostStatus status,
+                               LocalDateTime createdAt,
+                               LocalDateTime scheduledAt,
+                               String contentHighlight,
+                               String commentHighlight) {
+}
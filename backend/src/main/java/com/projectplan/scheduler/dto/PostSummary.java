@@ -0,0 +1,24 @@
+package com.projectplan.scheduler.dto;
+
+import com.projectplan.scheduler.model.PostStatus;
+import com.projectplan.scheduler.model.SocialAccountStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A post as shown in list views: its own fields, a summary of each target and the number
+ * of comments. Comment bodies are fetched on demand from GET /api/posts/{postId}/comments.
+ */
+public record PostSummary(Long id,
+                          String content,
+                          PostStatus status,
+                          LocalDateTime createdAt,
+                          String authorId,
+                          LocalDateTime scheduledAt,
+                          long commentCount,
+                          List<TargetSummary> targets) {
+
+    public record TargetSummary(Long id, String name, String provider, SocialAccountStatus status) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.projectplan.scheduler.dto;
+
+import com.projectplan.scheduler.model.DeliveryStatus;
+import com.projectplan.scheduler.model.PostStatus;
+import com.projectplan.scheduler.model.PublishJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Status of an asynchronous publish job with the live progress of every target.
+ * Target progress keeps changing after the job completes while retries are pending.
+ */
+public record PublishJobResponse(Long id,
+                                 Long postId,
+                                 PublishJobStatus status,
+                                 PostStatus postStatus,
+                                 String error,
+                                 LocalDateTime createdAt,
+                                 LocalDateTime startedAt,
+                                 LocalDateTime finishedAt,
+                                 List<TargetProgress> targets) {
+
+    /**
+     * Delivery status is null until the job has reached this target.
+     */
+    public record TargetProgress(Long accountId,
+                                 String name,
+                                 String provider,
+                                 DeliveryStatus status,
+                                 int attempts,
+                                 String lastError,
+                                 LocalDateTime nextAttemptAt,
+                                 LocalDateTime deliveredAt) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.projectplan.scheduler.dto;
+
+import java.util.List;
+
+public record PublishResult(List<TargetOutcome> outcomes) {
+
+    public boolean allSucceeded() {
+        return outcomes.stream().allMatch(TargetOutcome::success);
+    }
+
+    /**
+     * Targets whose send failed, not counting the deferred ones.
+     */
+    public List<TargetOutcome> failures() {
+        return outcomes.stream().filter(outcome -> !outcome.success() && !outcome.deferred()).toList();
+    }
+
+    public List<TargetOutcome> deferred() {
+        return outcomes.stream().filter(TargetOutcome::deferred).toList();
+    }
+
+    /**
+     * A deferred target was not sent this time but has not failed either: it is rate limited,
+     * its provider's circuit is open, it is waiting for a retry or another sender has it, or
+     * it was still sending at the deadline. The retry pipeline finishes it.
+     */
+    public record TargetOutcome(Long accountId, String provider, String accountName, boolean success, boolean deferred,
+                                String providerMessageId, String error, long durationMs) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.projectplan.scheduler.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ReplayDeadLettersRequest {
+    private List<Long> deliveryIds; // Replay these deliveries...
+    private Long workspaceId;       // ...or every dead letter of this workspace
+}
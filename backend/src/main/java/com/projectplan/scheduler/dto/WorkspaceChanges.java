@@ -0,0 +1,28 @@
+package com.projectplan.scheduler.dto;
+
+import com.projectplan.scheduler.model.Comment;
+import com.projectplan.scheduler.model.SocialAccount;
+import com.projectplan.scheduler.model.UserWorkspace;
+
+import java.util.List;
+
+/**
+ * Everything in a workspace that was inserted, updated or deleted after the client's
+ * version, up to {@code version}. Rows carry their current state, so a row changed
+ * several times appears once. When {@code hasMore} is set the client asks again with
+ * since = {@code version} before it is up to date.
+ */
+public record WorkspaceChanges(long version,
+                               boolean hasMore,
+                               List<PostSummary> posts,
+                               List<Comment> comments,
+                               List<SocialAccount> channels,
+                               List<UserWorkspace> members,
+                               List<Deletion> deleted) {
+
+    /**
+     * {@code type} is "post", "comment", "channel" or "member".
+     */
+    public record Deletion(String type, String id) {
+    }
+}
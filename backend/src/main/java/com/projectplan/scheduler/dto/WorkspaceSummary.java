@@ -0,0 +1,10 @@
+package com.projectplan.scheduler.dto;
+
+import com.projectplan.scheduler.model.UserRole;
+
+/**
+ * A workspace as listed for one user on page load: its name, the user's role in it and
+ * how many members it has. The members themselves come from GET /api/workspaces/{id}/members.
+ */
+public record WorkspaceSummary(Long id, String name, UserRole role, long memberCount) {
+}
@@ -0,0 +1,20 @@
+package com.projectplan.scheduler.model;
+
+import com.projectplan.scheduler.service.ChangeVersionListener;
+
+/**
+ * A row served by the workspace change feed, GET /api/workspaces/{workspaceId}/changes.
+ * {@link ChangeVersionListener} stamps it with its workspace's next change version on every
+ * insert and update, and records a tombstone when it is deleted.
+ */
+public interface ChangeTracked {
+
+    Long changeWorkspaceId();
+
+    /** Entity type as named in tombstones, e.g. "post". */
+    String changeType();
+
+    String changeId();
+
+    void setChangeVersion(long changeVersion);
+}
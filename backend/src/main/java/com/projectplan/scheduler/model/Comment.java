@@ -1,15 +1,24 @@
 package com.projectplan.scheduler.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.projectplan.scheduler.service.ChangeVersionListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "\"Comment\"") // Use quotes in case 'Comment' is a reserved word
-public class Comment {
+@Table(name = "\"Comment\"", indexes = { // Use quotes in case 'Comment' is a reserved word
+    // Keyset pagination of a post's comments
+    @Index(name = "idx_comment_post_created_at_id", columnList = "postId, createdAt, id"),
+    // Change feed, reached through the posts whose version moved
+    @Index(name = "idx_comment_post_change_version", columnList = "postId, changeVersion")
+})
+@EntityListeners(ChangeVersionListener.class)
+public class Comment implements ChangeTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID) // Simpler ID for comments
@@ -27,4 +36,29 @@ public class Comment {
     @JoinColumn(name = "postId")
     @JsonIgnore // Prevents infinite loops when serializing
     private Post post;
+
+    @ColumnDefault("0")
+    @Column(name = "changeVersion", nullable = false)
+    private long changeVersion;
+
+    // Lets clients file comments that arrive without their post, e.g. from the change feed
+    @JsonProperty("postId")
+    public Long getPostId() {
+        return post != null ? post.getId() : null;
+    }
+
+    @Override
+    public Long changeWorkspaceId() {
+        return post.getWorkspace().getId();
+    }
+
+    @Override
+    public String changeType() {
+        return "comment";
+    }
+
+    @Override
+    public String changeId() {
+        return id;
+    }
 }
\ No newline at end of file
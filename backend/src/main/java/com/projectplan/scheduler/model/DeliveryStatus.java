@@ -0,0 +1,9 @@
+package com.projectplan.scheduler.model;
+
+public enum DeliveryStatus {
+    PENDING,
+    SENDING,
+    SUCCEEDED,
+    FAILED,
+    DEAD_LETTERED
+}
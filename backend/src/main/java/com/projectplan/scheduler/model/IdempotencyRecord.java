@@ -0,0 +1,47 @@
+package com.projectplan.scheduler.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored outcome of a request sent with an Idempotency-Key header.
+ * A row is inserted before the request runs (responseStatus null = in progress),
+ * so a concurrent retry with the same key can see it and does not run the request twice.
+ */
+@Data
+@Entity
+@Table(name = "\"IdempotencyRecord\"",
+    uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_key_scope", columnNames = {"idempotencyKey", "scope"}),
+    indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotencyKey", nullable = false)
+    private String idempotencyKey;
+
+    @Column(name = "scope", nullable = false)
+    private String scope; // Method, path, caller and workspace, e.g. "POST /api/posts/42/publish caller=u_1 workspace=-"
+
+    @Column(name = "requestHash", nullable = false, length = 64)
+    private String requestHash; // SHA-256 of the body; a reused key with a different body is rejected
+
+    private Integer responseStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    private String contentType;
+
+    private String location;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expiresAt", nullable = false)
+    private LocalDateTime expiresAt;
+}
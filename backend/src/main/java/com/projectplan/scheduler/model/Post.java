@@ -2,17 +2,29 @@ package com.projectplan.scheduler.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.List; // Required for comments
 import java.util.Set;   // Required for targets
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.projectplan.scheduler.service.ChangeVersionListener;
 
 @Data 
 @Entity
-@Table(name = "\"Post\"")
-public class Post {
+@Table(name = "\"Post\"", indexes = {
+    @Index(name = "idx_post_status_scheduled_at", columnList = "status, scheduledAt"),
+    // Keyset pagination of the feed (status <> ARCHIVED) and of the archive (status = ARCHIVED)
+    @Index(name = "idx_post_workspace_created_at_id", columnList = "workspaceId, createdAt, id"),
+    @Index(name = "idx_post_workspace_status_created_at_id", columnList = "workspaceId, status, createdAt, id"),
+    // Calendar range scans
+    @Index(name = "idx_post_workspace_scheduled_at", columnList = "workspaceId, scheduledAt"),
+    // Change feed
+    @Index(name = "idx_post_workspace_change_version", columnList = "workspaceId, changeVersion")
+})
+@EntityListeners(ChangeVersionListener.class)
+public class Post implements ChangeTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -34,10 +46,26 @@ public class Post {
     @Column(name = "scheduledAt")
     private LocalDateTime scheduledAt;
 
-    @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // When the dispatcher claimed the post for publishing. Written by PostRepository.claimDue only
+    @Column(name = "claimedAt", insertable = false, updatable = false)
+    @JsonIgnore
+    private LocalDateTime claimedAt;
+
+    // Served page by page from GET /api/posts/{postId}/comments, never with the post itself
+    @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @OrderBy("createdAt ASC")
+    @JsonIgnore
     private List<Comment> comments;
 
+    // Maintained by PostRepository.incrementCommentCount only, so saving a post never overwrites it
+    @ColumnDefault("0")
+    @Column(name = "commentCount", nullable = false, updatable = false)
+    private long commentCount;
+
+    @ColumnDefault("0")
+    @Column(name = "changeVersion", nullable = false)
+    private long changeVersion;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "workspaceId")
     @JsonIgnore
@@ -48,7 +76,24 @@ public class Post {
     @JoinTable(
         name = "\"PostTarget\"", // Name of the join table
         joinColumns = @JoinColumn(name = "postId"),
-        inverseJoinColumns = @JoinColumn(name = "socialAccountId")
+        inverseJoinColumns = @JoinColumn(name = "socialAccountId"),
+        // The primary key starts with postId; deleting a channel looks its rows up by account
+        indexes = @Index(name = "idx_post_target_social_account", columnList = "socialAccountId")
     )
     private Set<SocialAccount> targets = new java.util.HashSet<>();
+
+    @Override
+    public Long changeWorkspaceId() {
+        return workspace.getId();
+    }
+
+    @Override
+    public String changeType() {
+        return "post";
+    }
+
+    @Override
+    public String changeId() {
+        return String.valueOf(id);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.projectplan.scheduler.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Delivery state of one post on one target channel.
+ * One row per (post, social account) pair in "PostTarget"; a retry only re-sends rows that are not SUCCEEDED.
+ */
+@Data
+@Entity
+@Table(name = "\"PostDelivery\"",
+    uniqueConstraints = @UniqueConstraint(name = "uk_post_delivery_post_account", columnNames = {"postId", "socialAccountId"}),
+    indexes = {
+        @Index(name = "idx_post_delivery_account", columnList = "socialAccountId"),
+        @Index(name = "idx_post_delivery_status_next_attempt", columnList = "status, nextAttemptAt")
+    })
+public class PostDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "postId", nullable = false)
+    private Long postId;
+
+    @Column(name = "socialAccountId", nullable = false)
+    private Long socialAccountId;
+
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus status;
+
+    private int attempts;
+
+    private String providerMessageId; // e.g. Discord message id, LinkedIn share URN
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    private LocalDateTime lastAttemptAt;
+
+    private LocalDateTime nextAttemptAt; // earliest retry time for FAILED rows
+
+    private LocalDateTime deliveredAt;
+}
@@ -5,7 +5,9 @@ public enum PostStatus {
     PENDING_APPROVAL,
     APPROVED,
     SCHEDULED,
+    PUBLISHING,
     PUBLISHED,
+    FAILED,
     REJECTED,
     ARCHIVED
 }
\ No newline at end of file
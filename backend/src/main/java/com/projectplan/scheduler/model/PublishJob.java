@@ -0,0 +1,49 @@
+package com.projectplan.scheduler.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One asynchronous publish of a post. Per-target progress lives in the delivery ledger;
+ * the job only tracks the run itself and the post status it settled on.
+ */
+@Data
+@Entity
+@Table(name = "\"PublishJob\"",
+    // At most one queued or running job per post, even when two requests enqueue at once
+    uniqueConstraints = @UniqueConstraint(name = "uk_publish_job_active_post", columnNames = "activePostId"),
+    indexes = {
+        @Index(name = "idx_publish_job_status_created_at", columnList = "status, createdAt"),
+        @Index(name = "idx_publish_job_post", columnList = "postId")
+    })
+public class PublishJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "postId", nullable = false)
+    private Long postId;
+
+    // The post while the job is QUEUED or RUNNING, null once it has finished
+    @Column(name = "activePostId")
+    private Long activePostId;
+
+    @Enumerated(EnumType.STRING)
+    private PublishJobStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private PostStatus postStatus; // set when the job completes
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
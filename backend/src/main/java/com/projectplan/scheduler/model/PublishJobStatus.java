@@ -0,0 +1,8 @@
+package com.projectplan.scheduler.model;
+
+public enum PublishJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED, // the publish ran; postStatus tells whether every target got the post
+    FAILED     // the job itself broke (e.g. the post was deleted)
+}
@@ -1,14 +1,28 @@
 package com.projectplan.scheduler.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.projectplan.scheduler.service.ChangeVersionListener;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "\"SocialAccount\"")
-public class SocialAccount {
+@Table(name = "\"SocialAccount\"", indexes = {
+    // Channel picker: a workspace's accounts, optionally by status
+    @Index(name = "idx_social_account_workspace_status", columnList = "workspaceId, status"),
+    // Change feed
+    @Index(name = "idx_social_account_workspace_change_version", columnList = "workspaceId, changeVersion")
+})
+@EntityListeners(ChangeVersionListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "social-account")
+// A channel being deleted in the background is invisible to every query, post targets included
+@SQLRestriction("deleted_at is null")
+public class SocialAccount implements ChangeTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,4 +49,26 @@ public class SocialAccount {
     @JoinColumn(name = "workspaceId")
     @JsonIgnore
     private Workspace workspace;
+
+    @ColumnDefault("0")
+    @Column(name = "changeVersion", nullable = false)
+    private long changeVersion;
+
+    @Column(name = "deletedAt")
+    private LocalDateTime deletedAt;
+
+    @Override
+    public Long changeWorkspaceId() {
+        return workspace.getId();
+    }
+
+    @Override
+    public String changeType() {
+        return "channel";
+    }
+
+    @Override
+    public String changeId() {
+        return String.valueOf(id);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.projectplan.scheduler.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that a post, comment, channel or membership was deleted, so the change feed can
+ * tell clients holding a copy of it. Written by ChangeVersionService only.
+ */
+@Data
+@Entity
+@Table(name = "\"Tombstone\"", indexes = {
+    @Index(name = "idx_tombstone_workspace_change_version", columnList = "workspaceId, changeVersion")
+})
+public class Tombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "workspaceId", nullable = false)
+    private Long workspaceId;
+
+    @Column(name = "entityType", nullable = false)
+    private String entityType;
+
+    @Column(name = "entityId", nullable = false)
+    private String entityId;
+
+    @Column(name = "changeVersion", nullable = false)
+    private long changeVersion;
+
+    @Column(name = "deletedAt", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -1,14 +1,25 @@
 package com.projectplan.scheduler.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.projectplan.scheduler.service.ChangeVersionListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @Entity
-@Table(name = "\"UserWorkspace\"")
-public class UserWorkspace {
+@Table(name = "\"UserWorkspace\"", indexes = {
+    // Membership and role lookups by workspace
+    @Index(name = "idx_user_workspace_workspace_user", columnList = "workspaceId, userId"),
+    // Change feed
+    @Index(name = "idx_user_workspace_workspace_change_version", columnList = "workspaceId, changeVersion")
+})
+@EntityListeners(ChangeVersionListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-workspace")
+public class UserWorkspace implements ChangeTracked {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,4 +38,23 @@ public class UserWorkspace {
 
     @Enumerated(EnumType.STRING)
     private UserRole role;
+
+    @ColumnDefault("0")
+    @Column(name = "changeVersion", nullable = false)
+    private long changeVersion;
+
+    @Override
+    public Long changeWorkspaceId() {
+        return workspace.getId();
+    }
+
+    @Override
+    public String changeType() {
+        return "member";
+    }
+
+    @Override
+    public String changeId() {
+        return String.valueOf(id);
+    }
 }
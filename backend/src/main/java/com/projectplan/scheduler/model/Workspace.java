@@ -4,13 +4,21 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Data
 @Entity
 @Table(name = "\"Workspace\"")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "workspace")
+// A deleted workspace is invisible to every query while WorkspacePurgeService removes its rows
+@SQLRestriction("deleted_at is null")
 public class Workspace {
 
     @Id
@@ -19,6 +27,16 @@ public class Workspace {
 
     private String name;
 
+    // Last change version handed out in this workspace; only ChangeVersionService moves it, with JDBC,
+    // so a loaded or second-level cached Workspace may hold an old value
+    @ColumnDefault("0")
+    @Column(name = "changeVersion", nullable = false, insertable = false, updatable = false)
+    private long changeVersion;
+
+    @Column(name = "deletedAt")
+    private LocalDateTime deletedAt;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "workspace.members")
     @OneToMany(mappedBy = "workspace", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
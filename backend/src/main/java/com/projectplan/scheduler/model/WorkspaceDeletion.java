@@ -0,0 +1,48 @@
+package com.projectplan.scheduler.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Background purge of a deleted workspace, with its progress. The totals are counted when
+ * the purge starts; the deleted counts grow batch by batch.
+ */
+@Data
+@Entity
+@Table(name = "\"WorkspaceDeletion\"", indexes = {
+    @Index(name = "idx_workspace_deletion_status_updated_at", columnList = "status, updatedAt")
+})
+public class WorkspaceDeletion {
+
+    @Id
+    @Column(name = "workspaceId")
+    private Long workspaceId;
+
+    @Enumerated(EnumType.STRING)
+    private WorkspaceDeletionStatus status;
+
+    private long totalPosts;
+    private long deletedPosts;
+    private long totalComments;
+    private long deletedComments;
+    private long totalChannels;
+    private long deletedChannels;
+    private long totalMembers;
+    private long deletedMembers;
+
+    @Column(columnDefinition = "TEXT")
+    private String error; // last failure; the purge is retried from where it stopped
+
+    @Column(name = "requestedAt", nullable = false)
+    private LocalDateTime requestedAt;
+
+    private LocalDateTime startedAt;
+
+    // Moved after every batch, so a purge whose runner disappeared can be told from a slow one
+    @Column(name = "updatedAt", nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,7 @@
+package com.projectplan.scheduler.model;
+
+public enum WorkspaceDeletionStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED // every row of the workspace, and the workspace itself, is gone
+}
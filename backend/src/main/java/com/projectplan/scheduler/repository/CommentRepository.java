@@ -1,9 +1,55 @@
 package com.projectplan.scheduler.repository;
 
 import com.projectplan.scheduler.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, String> {
-}
\ No newline at end of file
+
+    /**
+     * Keyset pages of a post's comments, oldest first. Each following page starts after the
+     * (createdAt, id) of the previous page's last comment.
+     */
+    @Query("select c from Comment c where c.post.id = :postId order by c.createdAt asc, c.id asc")
+    List<Comment> findPageByPostId(@Param("postId") Long postId, Pageable pageable);
+
+    @Query("select c from Comment c where c.post.id = :postId " +
+           "and c.createdAt >= :createdAt and (c.createdAt > :createdAt or c.id > :id) " +
+           "order by c.createdAt asc, c.id asc")
+    List<Comment> findPageByPostIdAfter(@Param("postId") Long postId, @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") String id, Pageable pageable);
+
+    /**
+     * Comments with a change version in (since, upTo] for the change feed. Adding a comment
+     * also moves its post's version, so only posts changed since then need to be searched.
+     */
+    @Query("select c from Comment c join c.post p where p.workspace.id = :workspaceId and p.changeVersion > :since " +
+           "and c.changeVersion > :since and c.changeVersion <= :upTo order by c.changeVersion asc, c.createdAt asc")
+    List<Comment> findChanged(@Param("workspaceId") Long workspaceId, @Param("since") long since, @Param("upTo") long upTo);
+
+    @Query("select count(c) from Comment c where c.post.workspace.id = :workspaceId")
+    long countByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+    @Query("select c.id from Comment c where c.post.workspace.id = :workspaceId")
+    List<String> findIdsByWorkspaceId(@Param("workspaceId") Long workspaceId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Comment c where c.id in :ids")
+    int deleteByIds(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Comment c where c.post.id in :postIds")
+    int deleteByPostIds(@Param("postIds") Collection<Long> postIds);
+}
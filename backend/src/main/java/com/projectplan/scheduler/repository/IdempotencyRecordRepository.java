@@ -0,0 +1,42 @@
+package com.projectplan.scheduler.repository;
+
+import com.projectplan.scheduler.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByIdempotencyKeyAndScope(String idempotencyKey, String scope);
+
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.responseStatus = :status, r.responseBody = :body, " +
+           "r.contentType = :contentType, r.location = :location where r.id = :id")
+    int complete(@Param("id") Long id,
+                 @Param("status") int status,
+                 @Param("body") String body,
+                 @Param("contentType") String contentType,
+                 @Param("location") String location);
+
+    /**
+     * Takes over an in-progress record whose request never finished (e.g. the instance died).
+     */
+    @Modifying
+    @Transactional
+    @Query("update IdempotencyRecord r set r.createdAt = :now, r.requestHash = :requestHash " +
+           "where r.id = :id and r.responseStatus is null and r.createdAt < :staleBefore")
+    int takeOver(@Param("id") Long id, @Param("requestHash") String requestHash,
+                 @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,129 @@
+package com.projectplan.scheduler.repository;
+
+import com.projectplan.scheduler.dto.DeliveryState;
+import com.projectplan.scheduler.model.DeliveryStatus;
+import com.projectplan.scheduler.model.PostDelivery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PostDeliveryRepository extends JpaRepository<PostDelivery, Long> {
+    List<PostDelivery> findAllByPostId(Long postId);
+
+    @Query("select new com.projectplan.scheduler.dto.DeliveryState(d.id, d.socialAccountId, d.status, d.attempts, d.providerMessageId) " +
+           "from PostDelivery d where d.postId = :postId")
+    List<DeliveryState> findStatesByPostId(@Param("postId") Long postId);
+
+    /**
+     * Claims a delivery for sending. FAILED rows are only claimable once their backoff
+     * has elapsed, and a row stuck in SENDING longer than the stale cutoff (e.g. the
+     * instance died mid-call) may be reclaimed. DEAD_LETTERED rows need an explicit replay.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PostDelivery d set d.status = com.projectplan.scheduler.model.DeliveryStatus.SENDING, " +
+           "d.attempts = d.attempts + 1, d.lastAttemptAt = :now, d.nextAttemptAt = null " +
+           "where d.id = :id and (d.status = com.projectplan.scheduler.model.DeliveryStatus.PENDING " +
+           "or (d.status = com.projectplan.scheduler.model.DeliveryStatus.FAILED and (d.nextAttemptAt is null or d.nextAttemptAt <= :now)) " +
+           "or (d.status = com.projectplan.scheduler.model.DeliveryStatus.SENDING and d.lastAttemptAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("update PostDelivery d set d.status = :status, d.providerMessageId = :providerMessageId, " +
+           "d.lastError = :lastError, d.deliveredAt = :deliveredAt, d.nextAttemptAt = :nextAttemptAt where d.id = :id")
+    int recordOutcome(@Param("id") Long id,
+                      @Param("status") DeliveryStatus status,
+                      @Param("providerMessageId") String providerMessageId,
+                      @Param("lastError") String lastError,
+                      @Param("deliveredAt") LocalDateTime deliveredAt,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Puts a claimed delivery back to wait without counting the attempt, e.g. because the
+     * provider rate-limited it. The attempt budget is only for real failures.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PostDelivery d set d.status = com.projectplan.scheduler.model.DeliveryStatus.FAILED, " +
+           "d.attempts = d.attempts - 1, d.lastError = :lastError, d.nextAttemptAt = :nextAttemptAt " +
+           "where d.id = :id and d.status = com.projectplan.scheduler.model.DeliveryStatus.SENDING")
+    int defer(@Param("id") Long id, @Param("lastError") String lastError, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * PUBLISHING posts that have a failed delivery whose backoff has elapsed, or an abandoned
+     * SENDING one. Deliveries of posts archived or moved back to draft wait for their next publish.
+     */
+    @Query("select distinct d.postId from PostDelivery d, Post p where p.id = d.postId " +
+           "and p.status = com.projectplan.scheduler.model.PostStatus.PUBLISHING " +
+           "and ((d.status = com.projectplan.scheduler.model.DeliveryStatus.FAILED and d.nextAttemptAt <= :now) " +
+           "or (d.status = com.projectplan.scheduler.model.DeliveryStatus.SENDING and d.lastAttemptAt < :staleBefore))")
+    List<Long> findPostIdsWithDueRetries(@Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    @Query("select d from PostDelivery d, Post p where p.id = d.postId and p.workspace.id = :workspaceId " +
+           "and d.status = com.projectplan.scheduler.model.DeliveryStatus.DEAD_LETTERED order by d.lastAttemptAt desc")
+    List<PostDelivery> findDeadLetters(@Param("workspaceId") Long workspaceId, Pageable pageable);
+
+    /**
+     * Puts dead-lettered deliveries back into the retry pipeline with a fresh attempt budget.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PostDelivery d set d.status = com.projectplan.scheduler.model.DeliveryStatus.FAILED, " +
+           "d.attempts = 0, d.nextAttemptAt = :now " +
+           "where d.id in :ids and d.status = com.projectplan.scheduler.model.DeliveryStatus.DEAD_LETTERED")
+    int requeueDeadLetters(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update PostDelivery d set d.status = com.projectplan.scheduler.model.DeliveryStatus.FAILED, " +
+           "d.attempts = 0, d.nextAttemptAt = :now " +
+           "where d.status = com.projectplan.scheduler.model.DeliveryStatus.DEAD_LETTERED " +
+           "and d.postId in (select p.id from Post p where p.workspace.id = :workspaceId)")
+    int requeueDeadLettersInWorkspace(@Param("workspaceId") Long workspaceId, @Param("now") LocalDateTime now);
+
+    @Query("select distinct d.postId from PostDelivery d where d.id in :ids")
+    List<Long> findPostIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PostDelivery d where d.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PostDelivery d where d.postId = :postId and d.socialAccountId not in :socialAccountIds")
+    int deleteByPostIdAndSocialAccountIdNotIn(@Param("postId") Long postId, @Param("socialAccountIds") Collection<Long> socialAccountIds);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PostDelivery d where d.socialAccountId = :socialAccountId")
+    int deleteBySocialAccountId(@Param("socialAccountId") Long socialAccountId);
+
+    @Query("select d.id from PostDelivery d where d.socialAccountId = :socialAccountId")
+    List<Long> findIdsBySocialAccountId(@Param("socialAccountId") Long socialAccountId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PostDelivery d where d.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PostDelivery d where d.postId in :postIds")
+    int deleteByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PostDelivery d where d.socialAccountId in :socialAccountIds")
+    int deleteBySocialAccountIds(@Param("socialAccountIds") Collection<Long> socialAccountIds);
+}
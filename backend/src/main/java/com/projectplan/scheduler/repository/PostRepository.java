@@ -2,19 +2,322 @@ package com.projectplan.scheduler.repository;
 
 import com.projectplan.scheduler.model.Post;
 import com.projectplan.scheduler.model.PostStatus;
-import com.projectplan.scheduler.model.SocialAccount;
+import com.projectplan.scheduler.model.SocialAccountStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
+
+    /**
+     * Set clause of every bulk update below: stamps each post with its workspace's current
+     * change version. Run those updates through ChangeVersionService.updatePosts or
+     * updatePostsInWorkspace, which take that version in the same transaction first.
+     */
+    String STAMP_CHANGE_VERSION = "p.changeVersion = (select w.changeVersion from Workspace w where w.id = p.workspace.id)";
+
     List<Post> findAllByStatusNot(PostStatus status, Sort sort);
     List<Post> findAllByStatus(PostStatus status, Sort sort);
-    List<Post> findAllByTargetsContains(SocialAccount socialAccount);
     List<Post> findAllByWorkspaceIdAndStatusNot(Long workspaceId, PostStatus status, Sort sort);
     List<Post> findAllByWorkspaceIdAndStatus(Long workspaceId, PostStatus status, Sort sort);
-    void deleteByWorkspaceId(Long workspaceId);
-}
\ No newline at end of file
+
+    /**
+     * Keyset pages of a workspace's posts, newest first. The first page has no cursor; each
+     * following page starts after the (createdAt, id) of the previous page's last post, so the
+     * cost of a page does not grow with how far back it is. The redundant createdAt bound
+     * lets the (workspaceId, createdAt, id) index serve the range directly.
+     * Rows are scalar projections, so no comments or targets are loaded with them, and the
+     * comment count is read from the post's own column.
+     */
+    @Query("select p.id as id, p.content as content, p.status as status, p.createdAt as createdAt, " +
+           "p.authorId as authorId, p.scheduledAt as scheduledAt, p.commentCount as commentCount " +
+           "from Post p where p.workspace.id = :workspaceId and p.status <> :status " +
+           "order by p.createdAt desc, p.id desc")
+    List<PostRow> findPageByWorkspaceIdAndStatusNot(@Param("workspaceId") Long workspaceId, @Param("status") PostStatus status, Pageable pageable);
+
+    @Query("select p.id as id, p.content as content, p.status as status, p.createdAt as createdAt, " +
+           "p.authorId as authorId, p.scheduledAt as scheduledAt, p.commentCount as commentCount " +
+           "from Post p where p.workspace.id = :workspaceId and p.status <> :status " +
+           "and p.createdAt <= :createdAt and (p.createdAt < :createdAt or p.id < :id) " +
+           "order by p.createdAt desc, p.id desc")
+    List<PostRow> findPageByWorkspaceIdAndStatusNotAfter(@Param("workspaceId") Long workspaceId, @Param("status") PostStatus status,
+                                                      @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select p.id as id, p.content as content, p.status as status, p.createdAt as createdAt, " +
+           "p.authorId as authorId, p.scheduledAt as scheduledAt, p.commentCount as commentCount " +
+           "from Post p where p.workspace.id = :workspaceId and p.status = :status " +
+           "order by p.createdAt desc, p.id desc")
+    List<PostRow> findPageByWorkspaceIdAndStatus(@Param("workspaceId") Long workspaceId, @Param("status") PostStatus status, Pageable pageable);
+
+    @Query("select p.id as id, p.content as content, p.status as status, p.createdAt as createdAt, " +
+           "p.authorId as authorId, p.scheduledAt as scheduledAt, p.commentCount as commentCount " +
+           "from Post p where p.workspace.id = :workspaceId and p.status = :status " +
+           "and p.createdAt <= :createdAt and (p.createdAt < :createdAt or p.id < :id) " +
+           "order by p.createdAt desc, p.id desc")
+    List<PostRow> findPageByWorkspaceIdAndStatusAfter(@Param("workspaceId") Long workspaceId, @Param("status") PostStatus status,
+                                                   @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Due-post scan used by the dispatcher. Returns only ids and due times so that
+     * polling never hydrates comments or targets.
+     */
+    @Query("select p.id as id, p.scheduledAt as scheduledAt from Post p " +
+           "where p.status = :status and p.scheduledAt <= :horizon order by p.scheduledAt asc")
+    List<DuePost> findDue(@Param("status") PostStatus status, @Param("horizon") LocalDateTime horizon, Pageable pageable);
+
+    /**
+     * Compare-and-set status change. Returns 1 if this caller won the transition.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Post p set p.status = :to, " + STAMP_CHANGE_VERSION + " where p.id = :id and p.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") PostStatus from, @Param("to") PostStatus to);
+
+    @Query("select p.status from Post p where p.id = :id")
+    Optional<PostStatus> findStatus(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("update Post p set p.status = :status, " + STAMP_CHANGE_VERSION + " where p.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") PostStatus status);
+
+    @Query("select p.id from Post p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("update Post p set p.status = :status, " + STAMP_CHANGE_VERSION + " where p.id in :ids")
+    int updateStatuses(@Param("ids") Collection<Long> ids, @Param("status") PostStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("update Post p set p.status = :to, " + STAMP_CHANGE_VERSION + " where p.id in :ids and p.status = :from")
+    int transitionStatuses(@Param("ids") Collection<Long> ids, @Param("from") PostStatus from, @Param("to") PostStatus to);
+
+    @Modifying
+    @Transactional
+    @Query("update Post p set p.status = :to, " + STAMP_CHANGE_VERSION + " where p.workspace.id = :workspaceId and p.status = :from")
+    int transitionWorkspaceStatuses(@Param("workspaceId") Long workspaceId, @Param("from") PostStatus from, @Param("to") PostStatus to);
+
+    @Query("select p.id from Post p where p.status = com.projectplan.scheduler.model.PostStatus.PUBLISHING " +
+           "and exists (select d.id from PostDelivery d where d.postId = p.id) " +
+           "and not exists (select d.id from PostDelivery d where d.postId = p.id " +
+           "and d.status <> com.projectplan.scheduler.model.DeliveryStatus.SUCCEEDED)")
+    List<Long> findPublishingWithAllDeliveriesSucceeded(Pageable pageable);
+
+    /**
+     * Posts the dispatcher claimed before the cutoff that still have no delivery ledger rows:
+     * the instance that claimed them stopped between the claim and the first send. Posts of
+     * deleted workspaces are left to their purge.
+     */
+    @Query("select p.id from Post p where p.status = com.projectplan.scheduler.model.PostStatus.PUBLISHING " +
+           "and p.claimedAt < :claimedBefore " +
+           "and not exists (select d.id from PostDelivery d where d.postId = p.id) " +
+           "and exists (select w.id from Workspace w where w.id = p.workspace.id)")
+    List<Long> findAbandonedClaims(@Param("claimedBefore") LocalDateTime claimedBefore, Pageable pageable);
+
+    /**
+     * Puts abandoned claims back to SCHEDULED so the dispatcher fires them again. Repeats the
+     * conditions of findAbandonedClaims, so a post that got a delivery in between is left alone.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Post p set p.status = com.projectplan.scheduler.model.PostStatus.SCHEDULED, p.claimedAt = null, " + STAMP_CHANGE_VERSION + " " +
+           "where p.id in :ids and p.status = com.projectplan.scheduler.model.PostStatus.PUBLISHING " +
+           "and p.claimedAt < :claimedBefore " +
+           "and not exists (select d.id from PostDelivery d where d.postId = p.id)")
+    int releaseAbandonedClaims(@Param("ids") Collection<Long> ids, @Param("claimedBefore") LocalDateTime claimedBefore);
+
+    /**
+     * Claims a scheduled post for publishing, but only once it is actually due and only if
+     * its workspace is not being deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Post p set p.status = com.projectplan.scheduler.model.PostStatus.PUBLISHING, p.claimedAt = :now, " + STAMP_CHANGE_VERSION + " " +
+           "where p.id = :id and p.status = com.projectplan.scheduler.model.PostStatus.SCHEDULED and p.scheduledAt <= :now " +
+           "and exists (select w.id from Workspace w where w.id = p.workspace.id and w.deletedAt is null)")
+    int claimDue(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * The post, unless its workspace has been deleted and is waiting to be purged.
+     */
+    @Query("select p from Post p where p.id = :id " +
+           "and exists (select w.id from Workspace w where w.id = p.workspace.id and w.deletedAt is null)")
+    Optional<Post> findPublishable(@Param("id") Long id);
+
+    /**
+     * Target summaries of many posts in one query, for the post list read model.
+     */
+    @Query("select p.id as postId, a.id as id, a.name as name, a.provider as provider, a.status as status " +
+           "from Post p join p.targets a where p.id in :postIds")
+    List<TargetRow> findTargetRows(@Param("postIds") Collection<Long> postIds);
+
+    /**
+     * Posts scheduled in [from, to) for the calendar, as lightweight slots.
+     * Served by the (workspaceId, scheduledAt) index as a range scan.
+     */
+    @Query("select p.id as id, p.status as status, p.scheduledAt as scheduledAt, substring(p.content, 1, 50) as title " +
+           "from Post p where p.workspace.id = :workspaceId and p.scheduledAt >= :from and p.scheduledAt < :to " +
+           "and p.status <> com.projectplan.scheduler.model.PostStatus.ARCHIVED order by p.scheduledAt asc, p.id asc")
+    List<CalendarRow> findCalendarSlots(@Param("workspaceId") Long workspaceId, @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to, Pageable pageable);
+
+    @Query("select distinct p.id as postId, a.provider as provider from Post p join p.targets a where p.id in :postIds")
+    List<TargetProviderRow> findTargetProviders(@Param("postIds") Collection<Long> postIds);
+
+    @Query("select cast(p.scheduledAt as LocalDate) as day, count(p) as count " +
+           "from Post p where p.workspace.id = :workspaceId and p.scheduledAt >= :from and p.scheduledAt < :to " +
+           "and p.status <> com.projectplan.scheduler.model.PostStatus.ARCHIVED " +
+           "group by cast(p.scheduledAt as LocalDate) order by cast(p.scheduledAt as LocalDate)")
+    List<DayCountRow> countScheduledPerDay(@Param("workspaceId") Long workspaceId, @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Transactional
+    @Query("update Post p set p.commentCount = p.commentCount + 1, " + STAMP_CHANGE_VERSION + " where p.id = :id")
+    int incrementCommentCount(@Param("id") Long id);
+
+    /**
+     * Fills the count of posts that have comments but still carry the column default,
+     * i.e. posts commented on before the column existed. Cheap once nothing is left to fill.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Post p set p.commentCount = (select count(c) from Comment c where c.post.id = p.id) " +
+           "where p.commentCount = 0 and exists (select 1 from Comment c where c.post.id = p.id)")
+    int backfillCommentCounts();
+
+    // Written out rather than derived: a derived query joins Workspace, whose restriction hides deleted workspaces
+    @Query("select count(p) from Post p where p.workspace.id = :workspaceId")
+    long countByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+    @Query("select p.id from Post p where p.workspace.id = :workspaceId")
+    List<Long> findIdsByWorkspaceId(@Param("workspaceId") Long workspaceId, Pageable pageable);
+
+    /**
+     * Deletes the posts; Hibernate removes their "PostTarget" rows first.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from Post p where p.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Removes the accounts from every post that targets them. "PostTarget" has no entity, so
+     * this is native SQL; the declared table keeps Hibernate from clearing every second-level
+     * cache region after the statement.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "delete from \"post_target\" where social_account_id in (:accountIds)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_target"))
+    int deleteTargetsOfAccounts(@Param("accountIds") Collection<Long> accountIds);
+
+    /**
+     * How many posts target the account, counting no further than the limit, so the answer
+     * costs the same however widely the account was used.
+     */
+    @Query(value = "select count(*) from (select 1 from \"post_target\" where social_account_id = :accountId limit :limit) t",
+           nativeQuery = true)
+    long countTargetsOfAccountUpTo(@Param("accountId") Long accountId, @Param("limit") long limit);
+
+    @Query(value = "select post_id from \"post_target\" where social_account_id = :accountId", nativeQuery = true)
+    List<Long> findPostIdsTargetingAccount(@Param("accountId") Long accountId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from \"post_target\" where social_account_id = :accountId and post_id in (:postIds)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_target"))
+    int deleteTargetsOfAccount(@Param("accountId") Long accountId, @Param("postIds") Collection<Long> postIds);
+
+    /**
+     * Stamps every post that targets the account, before its targets are removed. Run through
+     * ChangeVersionService.updatePostsInWorkspace.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Post p set " + STAMP_CHANGE_VERSION + " " +
+           "where p.id in (select t.id from Post t join t.targets a where a.id = :accountId)")
+    int stampPostsTargeting(@Param("accountId") Long accountId);
+
+    /**
+     * Stamps the posts, skipping those of deleted workspaces: their purge removes them anyway.
+     * Run through ChangeVersionService.updatePosts.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Post p set " + STAMP_CHANGE_VERSION + " " +
+           "where p.id in :ids and exists (select w.id from Workspace w where w.id = p.workspace.id)")
+    int stampChangeVersions(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.workspace.id from Post p where p.id = :id")
+    Optional<Long> findWorkspaceId(@Param("id") Long id);
+
+    @Query("select distinct p.workspace.id from Post p where p.id in :ids")
+    List<Long> findWorkspaceIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Posts of any status whose change version is in (since, upTo], for the change feed.
+     */
+    @Query("select p.id as id, p.content as content, p.status as status, p.createdAt as createdAt, " +
+           "p.authorId as authorId, p.scheduledAt as scheduledAt, p.commentCount as commentCount " +
+           "from Post p where p.workspace.id = :workspaceId and p.changeVersion > :since and p.changeVersion <= :upTo " +
+           "order by p.changeVersion asc, p.id asc")
+    List<PostRow> findChanged(@Param("workspaceId") Long workspaceId, @Param("since") long since, @Param("upTo") long upTo);
+
+    interface CalendarRow {
+        Long getId();
+        PostStatus getStatus();
+        LocalDateTime getScheduledAt();
+        String getTitle();
+    }
+
+    interface TargetProviderRow {
+        Long getPostId();
+        String getProvider();
+    }
+
+    interface DayCountRow {
+        LocalDate getDay();
+        long getCount();
+    }
+
+    interface PostRow {
+        Long getId();
+        String getContent();
+        PostStatus getStatus();
+        LocalDateTime getCreatedAt();
+        String getAuthorId();
+        LocalDateTime getScheduledAt();
+        long getCommentCount();
+    }
+
+    interface TargetRow {
+        Long getPostId();
+        Long getId();
+        String getName();
+        String getProvider();
+        SocialAccountStatus getStatus();
+    }
+
+    interface DuePost {
+        Long getId();
+        LocalDateTime getScheduledAt();
+    }
+}
@@ -0,0 +1,66 @@
+package com.projectplan.scheduler.repository;
+
+import com.projectplan.scheduler.model.PostStatus;
+import com.projectplan.scheduler.model.PublishJob;
+import com.projectplan.scheduler.model.PublishJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PublishJobRepository extends JpaRepository<PublishJob, Long> {
+    Optional<PublishJob> findFirstByPostIdAndStatusInOrderByIdDesc(Long postId, Collection<PublishJobStatus> statuses);
+
+    List<PublishJob> findAllByPostIdInAndStatusIn(Collection<Long> postIds, Collection<PublishJobStatus> statuses);
+
+    /**
+     * Compare-and-set QUEUED -> RUNNING. Returns 1 if this caller runs the job.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PublishJob j set j.status = com.projectplan.scheduler.model.PublishJobStatus.RUNNING, j.startedAt = :now " +
+           "where j.id = :id and j.status = com.projectplan.scheduler.model.PublishJobStatus.QUEUED")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update PublishJob j set j.status = :status, j.postStatus = :postStatus, j.error = :error, j.finishedAt = :now, " +
+           "j.activePostId = null where j.id = :id")
+    int finish(@Param("id") Long id,
+               @Param("status") PublishJobStatus status,
+               @Param("postStatus") PostStatus postStatus,
+               @Param("error") String error,
+               @Param("now") LocalDateTime now);
+
+    @Query("select j.id from PublishJob j where j.status = com.projectplan.scheduler.model.PublishJobStatus.QUEUED " +
+           "and j.createdAt < :before order by j.createdAt asc")
+    List<Long> findQueuedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Puts jobs whose runner disappeared (e.g. the instance restarted mid-run) back in the queue.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PublishJob j set j.status = com.projectplan.scheduler.model.PublishJobStatus.QUEUED " +
+           "where j.status = com.projectplan.scheduler.model.PublishJobStatus.RUNNING and j.startedAt < :before")
+    int requeueStale(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PublishJob j where j.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PublishJob j where j.postId in :postIds")
+    int deleteByPostIds(@Param("postIds") Collection<Long> postIds);
+}
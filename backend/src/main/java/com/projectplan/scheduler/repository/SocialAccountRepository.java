@@ -2,13 +2,65 @@ package com.projectplan.scheduler.repository;
 
 import com.projectplan.scheduler.model.SocialAccount;
 import com.projectplan.scheduler.model.SocialAccountStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional; // Required for this method
 
 @Repository
 public interface SocialAccountRepository extends JpaRepository<SocialAccount, Long> {
     List<SocialAccount> findAllByWorkspaceId(Long workspaceId);
-}
\ No newline at end of file
+    List<SocialAccount> findAllByWorkspaceIdAndStatus(Long workspaceId, SocialAccountStatus status);
+
+    @Query("select a from SocialAccount a where a.workspace.id = :workspaceId " +
+           "and a.changeVersion > :since and a.changeVersion <= :upTo order by a.changeVersion asc, a.id asc")
+    List<SocialAccount> findChanged(@Param("workspaceId") Long workspaceId, @Param("since") long since, @Param("upTo") long upTo);
+
+    /**
+     * Hides the account while its posts are detached in the background. Returns 0 if it does
+     * not exist or is already being deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("update SocialAccount a set a.deletedAt = :now where a.id = :id and a.deletedAt is null")
+    int markDeleted(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // The queries below are native, because the entity's restriction hides accounts being deleted from JPQL
+
+    @Query(value = "select id from \"social_account\" where deleted_at is not null and deleted_at < :before", nativeQuery = true)
+    List<Long> findDeletedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Removes the row of a hidden account once nothing references it any more.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "delete from \"social_account\" where id = :id and deleted_at is not null", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "social_account"))
+    int deletePurged(@Param("id") Long id);
+
+    // The workspace purge takes accounts being deleted on their own with the rest
+
+    @Query(value = "select count(*) from \"social_account\" where workspace_id = :workspaceId", nativeQuery = true)
+    long countByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+    @Query(value = "select id from \"social_account\" where workspace_id = :workspaceId", nativeQuery = true)
+    List<Long> findIdsByWorkspaceId(@Param("workspaceId") Long workspaceId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from \"social_account\" where id in (:ids)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "social_account"))
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,29 @@
+package com.projectplan.scheduler.repository;
+
+import com.projectplan.scheduler.model.Tombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    @Query("select t from Tombstone t where t.workspaceId = :workspaceId " +
+           "and t.changeVersion > :since and t.changeVersion <= :upTo order by t.changeVersion asc, t.id asc")
+    List<Tombstone> findChanged(@Param("workspaceId") Long workspaceId, @Param("since") long since, @Param("upTo") long upTo);
+
+    @Query("select t.id from Tombstone t where t.workspaceId = :workspaceId")
+    List<Long> findIdsByWorkspaceId(@Param("workspaceId") Long workspaceId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Tombstone t where t.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
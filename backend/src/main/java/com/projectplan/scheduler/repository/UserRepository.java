@@ -1,7 +1,14 @@
 package com.projectplan.scheduler.repository;
 
+import com.projectplan.scheduler.dto.UserDto;
 import com.projectplan.scheduler.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +16,24 @@ import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
-    List<User> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email);
+
+    /**
+     * Users whose name or email starts with the (already lower-cased and escaped) prefix,
+     * shortest first. Served by the lower(...) text_pattern_ops indexes on Postgres.
+     */
+    @Query("select new com.projectplan.scheduler.dto.UserDto(u.id, u.name, u.email, u.image) from User u " +
+           "where lower(u.name) like concat(:prefix, '%') escape '\\' or lower(u.email) like concat(:prefix, '%') escape '\\' " +
+           "order by length(coalesce(u.name, u.email)), u.id")
+    List<UserDto> searchByPrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    /**
+     * Users whose name or email contains the (already lower-cased and escaped) term, in no
+     * particular order so the scan can stop at the limit. Served by the pg_trgm GIN indexes
+     * on Postgres when the extension is available.
+     */
+    @Query("select new com.projectplan.scheduler.dto.UserDto(u.id, u.name, u.email, u.image) from User u " +
+           "where lower(u.name) like concat('%', :term, '%') escape '\\' or lower(u.email) like concat('%', :term, '%') escape '\\'")
+    List<UserDto> searchByContains(@Param("term") String term, Pageable pageable);
 }
@@ -1,13 +1,76 @@
 package com.projectplan.scheduler.repository;
 
+import com.projectplan.scheduler.model.UserRole;
 import com.projectplan.scheduler.model.UserWorkspace;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserWorkspaceRepository extends JpaRepository<UserWorkspace, Long> {
-    void deleteByWorkspaceId(Long workspaceId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<UserWorkspace> findByUser_IdAndWorkspace_Id(String userId, Long workspaceId);
+
+    /**
+     * The user's role in a workspace, read through the (workspaceId, userId) index without
+     * loading the membership or its user. Empty once the workspace is deleted: the join drops
+     * it even while its memberships wait to be purged.
+     */
+    @Query("select uw.role from UserWorkspace uw join uw.workspace w where w.id = :workspaceId and uw.user.id = :userId")
+    Optional<UserRole> findRole(@Param("userId") String userId, @Param("workspaceId") Long workspaceId);
+
+    /**
+     * Locks the workspace's administrator memberships until the transaction ends. Two
+     * concurrent demotions or removals then see each other's change instead of both
+     * finding a second administrator left.
+     */
+    @Query(value = "select id from \"user_workspace\" where workspace_id = :workspaceId and role = 'ADMINISTRATOR' " +
+                   "order by id for update", nativeQuery = true)
+    List<Long> lockAdminIds(@Param("workspaceId") Long workspaceId);
+
+    /**
+     * The user's workspaces with their role in each and the member count, in one query
+     * that loads neither the workspaces' members nor any User rows.
+     */
+    @Query("select w.id as id, w.name as name, uw.role as role, " +
+           "(select count(m) from UserWorkspace m where m.workspace.id = w.id) as memberCount " +
+           "from UserWorkspace uw join uw.workspace w where uw.user.id = :userId order by w.id")
+    List<WorkspaceRow> findWorkspaceSummaries(@Param("userId") String userId);
+
+    @Query("select uw from UserWorkspace uw join fetch uw.user where uw.workspace.id = :workspaceId order by uw.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<UserWorkspace> findMembersWithUser(@Param("workspaceId") Long workspaceId);
+
+    @Query("select uw from UserWorkspace uw join fetch uw.user where uw.workspace.id = :workspaceId " +
+           "and uw.changeVersion > :since and uw.changeVersion <= :upTo order by uw.changeVersion asc, uw.id asc")
+    List<UserWorkspace> findChanged(@Param("workspaceId") Long workspaceId, @Param("since") long since, @Param("upTo") long upTo);
+
+    @Query("select count(uw) from UserWorkspace uw where uw.workspace.id = :workspaceId")
+    long countByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+    @Query("select uw.id from UserWorkspace uw where uw.workspace.id = :workspaceId")
+    List<Long> findIdsByWorkspaceId(@Param("workspaceId") Long workspaceId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("delete from UserWorkspace uw where uw.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    interface WorkspaceRow {
+        Long getId();
+        String getName();
+        UserRole getRole();
+        long getMemberCount();
+    }
 }
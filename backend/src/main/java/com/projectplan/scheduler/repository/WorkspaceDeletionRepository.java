@@ -0,0 +1,75 @@
+package com.projectplan.scheduler.repository;
+
+import com.projectplan.scheduler.model.WorkspaceDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WorkspaceDeletionRepository extends JpaRepository<WorkspaceDeletion, Long> {
+
+    /**
+     * Compare-and-set QUEUED -> RUNNING. Returns 1 if this caller runs the purge.
+     */
+    @Modifying
+    @Transactional
+    @Query("update WorkspaceDeletion d set d.status = com.projectplan.scheduler.model.WorkspaceDeletionStatus.RUNNING, " +
+           "d.startedAt = coalesce(d.startedAt, :now), d.updatedAt = :now " +
+           "where d.workspaceId = :id and d.status = com.projectplan.scheduler.model.WorkspaceDeletionStatus.QUEUED")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Sets the totals from what is left to delete, so a resumed purge still reports against
+     * everything the workspace held.
+     */
+    @Modifying
+    @Transactional
+    @Query("update WorkspaceDeletion d set d.totalPosts = d.deletedPosts + :posts, d.totalComments = d.deletedComments + :comments, " +
+           "d.totalChannels = d.deletedChannels + :channels, d.totalMembers = d.deletedMembers + :members " +
+           "where d.workspaceId = :id")
+    int setRemaining(@Param("id") Long id, @Param("posts") long posts, @Param("comments") long comments,
+                     @Param("channels") long channels, @Param("members") long members);
+
+    @Modifying
+    @Transactional
+    @Query("update WorkspaceDeletion d set d.deletedPosts = d.deletedPosts + :posts, d.deletedComments = d.deletedComments + :comments, " +
+           "d.deletedChannels = d.deletedChannels + :channels, d.deletedMembers = d.deletedMembers + :members, d.updatedAt = :now " +
+           "where d.workspaceId = :id")
+    int addProgress(@Param("id") Long id, @Param("posts") long posts, @Param("comments") long comments,
+                    @Param("channels") long channels, @Param("members") long members, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update WorkspaceDeletion d set d.status = com.projectplan.scheduler.model.WorkspaceDeletionStatus.COMPLETED, " +
+           "d.error = null, d.updatedAt = :now, d.finishedAt = :now where d.workspaceId = :id")
+    int complete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Puts a failed purge back in the queue; the recovery poll resumes it.
+     */
+    @Modifying
+    @Transactional
+    @Query("update WorkspaceDeletion d set d.status = com.projectplan.scheduler.model.WorkspaceDeletionStatus.QUEUED, " +
+           "d.error = :error, d.updatedAt = :now where d.workspaceId = :id")
+    int fail(@Param("id") Long id, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Query("select d.workspaceId from WorkspaceDeletion d where d.status = com.projectplan.scheduler.model.WorkspaceDeletionStatus.QUEUED " +
+           "and d.updatedAt < :before order by d.updatedAt asc")
+    List<Long> findQueuedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Puts purges whose runner disappeared (no batch finished since the cutoff) back in the queue.
+     */
+    @Modifying
+    @Transactional
+    @Query("update WorkspaceDeletion d set d.status = com.projectplan.scheduler.model.WorkspaceDeletionStatus.QUEUED " +
+           "where d.status = com.projectplan.scheduler.model.WorkspaceDeletionStatus.RUNNING and d.updatedAt < :before")
+    int requeueStale(@Param("before") LocalDateTime before);
+}
@@ -1,12 +1,53 @@
 package com.projectplan.scheduler.repository;
 
 import com.projectplan.scheduler.model.Workspace;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WorkspaceRepository extends JpaRepository<Workspace, Long> {
     List<Workspace> findByUserWorkspaces_User_Id(String userId);
+
+    /**
+     * Checked before most workspace reads; answered from the query cache until a workspace is
+     * created or deleted.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    boolean existsById(Long id);
+
+    /**
+     * Last committed change version of the workspace; empty if it does not exist.
+     */
+    @Query("select w.changeVersion from Workspace w where w.id = :id")
+    Optional<Long> findChangeVersion(@Param("id") Long id);
+
+    /**
+     * Soft-deletes the workspace. Returns 0 if it does not exist or is already deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Workspace w set w.deletedAt = :now where w.id = :id and w.deletedAt is null")
+    int markDeleted(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Removes the row of a soft-deleted workspace once everything in it has been purged.
+     * Native, because the entity's restriction hides deleted workspaces from JPQL.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "delete from \"workspace\" where id = :id and deleted_at is not null", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "workspace"))
+    int deletePurged(@Param("id") Long id);
 }
@@ -0,0 +1,81 @@
+package com.projectplan.scheduler.service;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs long deletions in the background, one at a time, in batches that each commit on
+ * their own so that no transaction holds locks for long. Used by {@link WorkspacePurgeService}
+ * and {@link SocialAccountDeletionService}.
+ *
+ * The work is keyed by the id of what is being deleted and must already be persisted when
+ * it is submitted: the owner's recovery poll resubmits anything that was lost to a restart,
+ * and an id already waiting or running is not queued a second time.
+ */
+final class BatchedWorker {
+
+    // A single thread: deletions are background work and should not compete with requests for the database
+    private final ExecutorService executor;
+    private final TransactionTemplate transactionTemplate;
+
+    // Ids handed to the thread and not finished yet
+    private final Set<Long> submitted = ConcurrentHashMap.newKeySet();
+
+    BatchedWorker(String name, PlatformTransactionManager transactionManager) {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, name));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queues the work for this id unless it is already queued or running. Does nothing while
+     * shutting down; the work is resumed after the restart.
+     */
+    void submit(Long id, Consumer<Long> work) {
+        if (!submitted.add(id)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    work.accept(id);
+                } finally {
+                    submitted.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            submitted.remove(id);
+        }
+    }
+
+    /**
+     * Runs the batch, each time in a new transaction, until it reports that nothing was left.
+     *
+     * @return the sum of what the batches reported
+     */
+    int drain(IntSupplier batch) {
+        int total = 0;
+        int done;
+        do {
+            Integer result = transactionTemplate.execute(status -> batch.getAsInt());
+            done = result != null ? result : 0;
+            total += done;
+        } while (done > 0);
+        return total;
+    }
+
+    void inTransaction(Runnable work) {
+        transactionTemplate.executeWithoutResult(status -> work.run());
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,87 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.dto.WorkspaceChanges;
+import com.projectplan.scheduler.repository.CommentRepository;
+import com.projectplan.scheduler.repository.PostRepository;
+import com.projectplan.scheduler.repository.SocialAccountRepository;
+import com.projectplan.scheduler.repository.TombstoneRepository;
+import com.projectplan.scheduler.repository.UserWorkspaceRepository;
+import com.projectplan.scheduler.repository.WorkspaceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the workspace change feed. See {@link ChangeVersionService} for how versions are
+ * handed out.
+ *
+ * A response covers a window of versions rather than a number of rows: every row of a
+ * version is in the same response, and the client's next version is simply the end of the
+ * window. Each query is a range scan of a (workspaceId, changeVersion) index.
+ */
+@Service
+public class ChangeFeedService {
+
+    /** Widest window of versions served in one response. */
+    public static final long MAX_VERSIONS_PER_RESPONSE = 1000;
+
+    @Autowired
+    private WorkspaceRepository workspaceRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private SocialAccountRepository socialAccountRepository;
+
+    @Autowired
+    private UserWorkspaceRepository userWorkspaceRepository;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private PostQueryService postQueryService;
+
+    /**
+     * @param since the last version the client has; null to only learn the current version,
+     *              e.g. right before loading lists the client will keep in sync from then on
+     * @return empty if the workspace does not exist
+     * @throws IllegalArgumentException if {@code since} is ahead of the workspace
+     */
+    public Optional<WorkspaceChanges> changesSince(Long workspaceId, Long since) {
+        Optional<Long> current = workspaceRepository.findChangeVersion(workspaceId);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        long version = current.get();
+        if (since == null) {
+            return Optional.of(new WorkspaceChanges(version, false, List.of(), List.of(), List.of(), List.of(), List.of()));
+        }
+        if (since < 0 || since > version) {
+            throw new IllegalArgumentException("since must be between 0 and the workspace's version " + version);
+        }
+
+        // Rows of versions after the one read above may be visible to the queries below; the
+        // window bound keeps them out so that they are served whole by the next request.
+        long upTo = Math.min(version, since + MAX_VERSIONS_PER_RESPONSE);
+        // Rows written before change versions existed carry version 0; a sync from 0 includes them
+        long after = since == 0 ? -1 : since;
+        List<WorkspaceChanges.Deletion> deleted = tombstoneRepository.findChanged(workspaceId, after, upTo).stream()
+                .map(tombstone -> new WorkspaceChanges.Deletion(tombstone.getEntityType(), tombstone.getEntityId()))
+                .toList();
+        return Optional.of(new WorkspaceChanges(
+                upTo,
+                upTo < version,
+                postQueryService.toSummaries(postRepository.findChanged(workspaceId, after, upTo)),
+                commentRepository.findChanged(workspaceId, after, upTo),
+                socialAccountRepository.findChanged(workspaceId, after, upTo),
+                userWorkspaceRepository.findChanged(workspaceId, after, upTo),
+                deleted));
+    }
+}
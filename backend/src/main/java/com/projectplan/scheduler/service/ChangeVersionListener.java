@@ -0,0 +1,34 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.model.ChangeTracked;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener of the {@link ChangeTracked} entities. Hibernate creates it through
+ * Spring, so it can reach {@link ChangeVersionService}.
+ *
+ * Bulk JPQL updates and deletes bypass it; they stamp versions themselves.
+ */
+@Component
+public class ChangeVersionListener {
+
+    private final ChangeVersionService changeVersionService;
+
+    public ChangeVersionListener(ChangeVersionService changeVersionService) {
+        this.changeVersionService = changeVersionService;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void stamp(Object entity) {
+        changeVersionService.stamp((ChangeTracked) entity);
+    }
+
+    @PreRemove
+    public void tombstone(Object entity) {
+        changeVersionService.tombstone((ChangeTracked) entity);
+    }
+}
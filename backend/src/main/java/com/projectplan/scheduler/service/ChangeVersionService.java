@@ -0,0 +1,199 @@
+package com.projectplan.scheduler.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.projectplan.scheduler.model.ChangeTracked;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Hands out change versions for the workspace change feed.
+ *
+ * Each workspace counts its own versions in "Workspace".changeVersion. A transaction that
+ * changes rows of a workspace increments the counter once and stamps every row it writes
+ * with the new value. The increment locks the workspace row until the transaction ends, so
+ * versions of a workspace become visible in the order they were handed out: once a reader
+ * sees version N, no row with a version up to N can still appear. That is what lets a
+ * client ask for everything after the version it last saw.
+ *
+ * Versions are taken with plain JDBC on the transaction's connection, because they are
+ * needed from entity callbacks in the middle of a flush.
+ *
+ * The last committed version of each workspace is also kept in memory, as the validator
+ * of the workspace's list responses: a transaction that took a version evicts it once it
+ * has committed.
+ */
+@Service
+public class ChangeVersionService {
+
+    // Physical names of the Workspace, Post and Tombstone tables after Spring's naming strategy
+    private static final String WORKSPACE_TABLE = "\"workspace\"";
+    private static final String POST_TABLE = "\"post\"";
+    private static final String TOMBSTONE_TABLE = "\"tombstone\"";
+
+    /** Key of the per-transaction state bound to the transaction synchronization. */
+    private static final Object STATE_KEY = new Object();
+
+    private static final class State {
+        final Map<Long, Long> versions = new HashMap<>();
+        final Set<Long> deletedWorkspaces = new HashSet<>();
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Cache<Long, Long> committedVersions;
+
+    // The template is built from the DataSource rather than injected: Hibernate creates the entity
+    // listener while the EntityManagerFactory is starting, and Boot's JdbcTemplate waits for that factory
+    public ChangeVersionService(DataSource dataSource,
+                                @Value("${change-versions.cache.ttl:PT30S}") Duration ttl,
+                                @Value("${change-versions.cache.max-size:10000}") long maxSize) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.committedVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Last committed change version of the workspace, or null if it does not exist or is deleted.
+     */
+    public Long committedVersion(Long workspaceId) {
+        return committedVersions.get(workspaceId, id -> jdbcTemplate.queryForList(
+                "SELECT change_version FROM " + WORKSPACE_TABLE + " WHERE id = :id AND deleted_at IS NULL",
+                new MapSqlParameterSource("id", id), Long.class).stream().findFirst().orElse(null));
+    }
+
+    /**
+     * ETag of every list of the workspace's posts, channels or members: it changes exactly
+     * when the workspace's version does. Null if the workspace does not exist.
+     */
+    public String workspaceETag(Long workspaceId) {
+        Long version = committedVersion(workspaceId);
+        return version != null ? ETags.of(workspaceId + "." + version) : null;
+    }
+
+    /**
+     * The version the current transaction writes in the workspace, taken on first use and
+     * then reused for the rest of the transaction.
+     */
+    public long next(Long workspaceId) {
+        State state = state();
+        Long version = state.versions.get(workspaceId);
+        if (version == null) {
+            version = increment(workspaceId);
+            state.versions.put(workspaceId, version);
+        }
+        return version;
+    }
+
+    public void stamp(ChangeTracked row) {
+        row.setChangeVersion(next(row.changeWorkspaceId()));
+    }
+
+    public void tombstone(ChangeTracked row) {
+        Long workspaceId = row.changeWorkspaceId();
+        State state = state();
+        if (state.deletedWorkspaces.contains(workspaceId)) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO " + TOMBSTONE_TABLE +
+                        " (workspace_id, entity_type, entity_id, change_version, deleted_at) " +
+                        "VALUES (:workspaceId, :entityType, :entityId, :changeVersion, :deletedAt)",
+                new MapSqlParameterSource()
+                        .addValue("workspaceId", workspaceId)
+                        .addValue("entityType", row.changeType())
+                        .addValue("entityId", row.changeId())
+                        .addValue("changeVersion", next(workspaceId))
+                        .addValue("deletedAt", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    /**
+     * Marks the workspace as deleted by the current transaction: rows removed with it get no
+     * tombstones, since clients drop their copy when the workspace itself goes, and its cached
+     * version is dropped on commit.
+     */
+    public void deletingWorkspace(Long workspaceId) {
+        state().deletedWorkspaces.add(workspaceId);
+    }
+
+    /**
+     * Runs a bulk update of the given posts after taking a new version in each of their
+     * workspaces, all in one transaction. The update must set each post's changeVersion
+     * from its workspace's counter, as the bulk updates in PostRepository do.
+     */
+    @Transactional
+    public <T> T updatePosts(Collection<Long> postIds, Supplier<T> update) {
+        if (!postIds.isEmpty()) {
+            // Counters are locked in id order, so two bulk updates spanning the same workspaces cannot deadlock
+            Set<Long> workspaceIds = new TreeSet<>(jdbcTemplate.queryForList(
+                    "SELECT DISTINCT workspace_id FROM " + POST_TABLE + " WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", List.copyOf(postIds)), Long.class));
+            workspaceIds.forEach(this::next);
+        }
+        return update.get();
+    }
+
+    /**
+     * Like {@link #updatePosts} when all the updated posts are in one known workspace.
+     */
+    @Transactional
+    public <T> T updatePostsInWorkspace(Long workspaceId, Supplier<T> update) {
+        next(workspaceId);
+        return update.get();
+    }
+
+    private long increment(Long workspaceId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", workspaceId);
+        int updated = jdbcTemplate.update(
+                "UPDATE " + WORKSPACE_TABLE + " SET change_version = change_version + 1 WHERE id = :id", params);
+        if (updated == 0) {
+            // The workspace is gone; nobody can read its changes any more
+            return 0;
+        }
+        return jdbcTemplate.queryForObject(
+                "SELECT change_version FROM " + WORKSPACE_TABLE + " WHERE id = :id", params, Long.class);
+    }
+
+    private State state() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Change versions must be taken inside the transaction that writes the rows");
+        }
+        State state = (State) TransactionSynchronizationManager.getResource(STATE_KEY);
+        if (state == null) {
+            State created = new State();
+            TransactionSynchronizationManager.bindResource(STATE_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedVersions.invalidateAll(created.versions.keySet());
+                    committedVersions.invalidateAll(created.deletedWorkspaces);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(STATE_KEY);
+                }
+            });
+            state = created;
+        }
+        return state;
+    }
+}
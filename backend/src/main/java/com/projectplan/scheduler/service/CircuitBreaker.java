@@ -0,0 +1,99 @@
+package com.projectplan.scheduler.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consecutive-failure circuit breaker.
+ *
+ * CLOSED lets every call through and opens after {@code failureThreshold} failures in a row.
+ * OPEN rejects calls until {@code openNanos} have passed, then lets exactly one probe through
+ * (HALF_OPEN). The probe's outcome closes the circuit or opens it again. A probe that never
+ * reports back (e.g. its thread was cancelled) is replaced after another open period.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private record Snapshot(State state, int failures, long sinceNanos) {
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(State.CLOSED, 0, 0));
+
+    public CircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    /**
+     * Returns true if the caller may make the call. In OPEN and HALF_OPEN at most one caller
+     * per open period gets through, as the probe.
+     */
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (current.state() == State.CLOSED) {
+                return true;
+            }
+            if (nowNanos - current.sinceNanos() < openNanos) {
+                return false;
+            }
+            if (snapshot.compareAndSet(current, new Snapshot(State.HALF_OPEN, current.failures(), nowNanos))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds until the next probe may be made; 0 while closed.
+     */
+    public long nanosUntilProbe(long nowNanos) {
+        Snapshot current = snapshot.get();
+        if (current.state() == State.CLOSED) {
+            return 0;
+        }
+        return Math.max(0, current.sinceNanos() + openNanos - nowNanos);
+    }
+
+    /**
+     * Returns the state before the call, so callers can log transitions.
+     */
+    public State onSuccess() {
+        Snapshot previous = snapshot.getAndSet(new Snapshot(State.CLOSED, 0, 0));
+        return previous.state();
+    }
+
+    /**
+     * Returns true if this failure opened the circuit.
+     */
+    public boolean onFailure(long nowNanos) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            int failures = current.failures() + 1;
+            boolean open = current.state() == State.HALF_OPEN || failures >= failureThreshold;
+            if (current.state() == State.OPEN) {
+                // Late result of a call made before the circuit opened
+                return false;
+            }
+            Snapshot next = open ? new Snapshot(State.OPEN, failures, nowNanos) : new Snapshot(State.CLOSED, failures, 0);
+            if (snapshot.compareAndSet(current, next)) {
+                return open;
+            }
+        }
+    }
+
+    /**
+     * Gives back a probe that was granted but not used, so the next caller may probe at once.
+     */
+    public void releaseProbe(long nowNanos) {
+        Snapshot current = snapshot.get();
+        if (current.state() == State.HALF_OPEN) {
+            snapshot.compareAndSet(current, new Snapshot(State.OPEN, current.failures(), nowNanos - openNanos));
+        }
+    }
+
+    public State state() {
+        return snapshot.get().state();
+    }
+}
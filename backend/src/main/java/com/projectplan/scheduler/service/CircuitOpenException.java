@@ -0,0 +1,15 @@
+package com.projectplan.scheduler.service;
+
+import java.time.Duration;
+
+/**
+ * The remote side is considered down; the call was not made.
+ */
+public class CircuitOpenException extends DeferredPublishException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+}
@@ -0,0 +1,30 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Posts commented on before the commentCount column existed start at 0. Counts them once
+ * at startup; afterwards the column is kept up to date as comments are created.
+ */
+@Component
+public class CommentCountBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentCountBackfill.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int updated = postRepository.backfillCommentCounts();
+        if (updated > 0) {
+            logger.info("Backfilled comment counts of {} post(s)", updated);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.projectplan.scheduler.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * What the search services need to know about the database beyond JPA: whether it is
+ * Postgres, and whether the Postgres-only columns and indexes they use are in place.
+ */
+@Component
+public class DatabaseSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseSupport.class);
+
+    public enum IndexState { MISSING, INVALID, VALID }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    public boolean isPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            logger.warn("Could not determine the database type: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @param table the physical table name, unquoted
+     */
+    public boolean hasColumn(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns where table_schema = current_schema() " +
+                "and table_name = ? and column_name = ?", Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Postgres only. An index whose CREATE INDEX CONCURRENTLY failed stays behind as INVALID:
+     * it is kept up to date on writes but never used by queries, and IF NOT EXISTS will not
+     * build it again.
+     */
+    public IndexState indexState(String index) {
+        List<Boolean> valid = jdbcTemplate.queryForList(
+                "select i.indisvalid from pg_index i join pg_class c on c.oid = i.indexrelid " +
+                "join pg_namespace n on n.oid = c.relnamespace where c.relname = ? and n.nspname = current_schema()",
+                Boolean.class, index);
+        if (valid.isEmpty()) {
+            return IndexState.MISSING;
+        }
+        return Boolean.TRUE.equals(valid.get(0)) ? IndexState.VALID : IndexState.INVALID;
+    }
+
+    /**
+     * Escapes a search term for {@code like ... escape '\'}.
+     */
+    public static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
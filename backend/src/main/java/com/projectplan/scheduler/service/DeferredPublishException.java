@@ -0,0 +1,24 @@
+package com.projectplan.scheduler.service;
+
+import java.time.Duration;
+
+/**
+ * The send was not attempted, or the provider refused it for now, for reasons that say
+ * nothing about the post itself. The delivery is parked for {@link #getRetryAfter()}
+ * without spending one of its attempts.
+ */
+public class DeferredPublishException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public DeferredPublishException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
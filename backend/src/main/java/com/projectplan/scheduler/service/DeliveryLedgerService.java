@@ -0,0 +1,152 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.dto.DeliveryState;
+import com.projectplan.scheduler.model.DeliveryStatus;
+import com.projectplan.scheduler.model.PostDelivery;
+import com.projectplan.scheduler.model.SocialAccount;
+import com.projectplan.scheduler.repository.PostDeliveryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-(post, target) delivery bookkeeping. Lets a publish retry skip targets that already
+ * received the post and keeps two concurrent publishes of the same post from both sending.
+ */
+@Service
+public class DeliveryLedgerService {
+
+    @Autowired
+    private PostDeliveryRepository postDeliveryRepository;
+
+    // A SENDING row older than this is assumed abandoned (e.g. the instance died mid-call)
+    @Value("${publishing.delivery.stale-after:PT5M}")
+    private Duration staleAfter;
+
+    @Value("${publishing.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${publishing.retry.initial-backoff:PT30S}")
+    private Duration initialBackoff;
+
+    @Value("${publishing.retry.max-backoff:PT30M}")
+    private Duration maxBackoff;
+
+    /**
+     * Returns the ledger state for the given targets keyed by social account id,
+     * creating PENDING rows for targets this post has never been sent to.
+     */
+    public Map<Long, DeliveryState> ensureDeliveries(Long postId, Collection<SocialAccount> targets) {
+        Map<Long, DeliveryState> byAccount = new HashMap<>();
+        for (DeliveryState delivery : postDeliveryRepository.findStatesByPostId(postId)) {
+            byAccount.put(delivery.socialAccountId(), delivery);
+        }
+        for (SocialAccount target : targets) {
+            if (!byAccount.containsKey(target.getId())) {
+                byAccount.put(target.getId(), createPending(postId, target.getId()));
+            }
+        }
+        return byAccount;
+    }
+
+    private DeliveryState createPending(Long postId, Long socialAccountId) {
+        PostDelivery delivery = new PostDelivery();
+        delivery.setPostId(postId);
+        delivery.setSocialAccountId(socialAccountId);
+        delivery.setStatus(DeliveryStatus.PENDING);
+        try {
+            PostDelivery saved = postDeliveryRepository.save(delivery);
+            return new DeliveryState(saved.getId(), socialAccountId, DeliveryStatus.PENDING, 0, null);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent publish created the row first
+            return postDeliveryRepository.findStatesByPostId(postId).stream()
+                    .filter(existing -> existing.socialAccountId().equals(socialAccountId))
+                    .findFirst()
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Atomically marks the delivery as SENDING and returns the number of this attempt,
+     * or 0 if it already succeeded, is backing off, or another caller is sending it.
+     */
+    public int claim(DeliveryState delivery) {
+        LocalDateTime now = LocalDateTime.now();
+        if (postDeliveryRepository.claim(delivery.id(), now, now.minus(staleAfter)) != 1) {
+            return 0;
+        }
+        return delivery.attempts() + 1;
+    }
+
+    public void recordSuccess(DeliveryState delivery, String providerMessageId) {
+        postDeliveryRepository.recordOutcome(delivery.id(), DeliveryStatus.SUCCEEDED, providerMessageId, null, LocalDateTime.now(), null);
+    }
+
+    /**
+     * Records a failed attempt. Retryable failures are rescheduled with exponential backoff
+     * and jitter until the attempt budget is spent; after that, or for permanent failures,
+     * the delivery is parked as DEAD_LETTERED until an operator replays it.
+     */
+    public void recordFailure(DeliveryState delivery, int attempt, String error, boolean retryable) {
+        if (retryable && attempt < maxAttempts) {
+            LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(attempt));
+            postDeliveryRepository.recordOutcome(delivery.id(), DeliveryStatus.FAILED, null, error, null, nextAttemptAt);
+        } else {
+            postDeliveryRepository.recordOutcome(delivery.id(), DeliveryStatus.DEAD_LETTERED, null, error, null, null);
+        }
+    }
+
+    /**
+     * Reschedules a claimed delivery the provider asked us to hold back, without
+     * spending an attempt on it.
+     */
+    public void recordDeferred(DeliveryState delivery, Duration retryAfter, String reason) {
+        postDeliveryRepository.defer(delivery.id(), reason, LocalDateTime.now().plus(retryAfter));
+    }
+
+    /**
+     * Equal-jitter exponential backoff: half of the capped exponential delay is fixed,
+     * the other half random, so retries of many deliveries that failed together spread out.
+     */
+    Duration backoff(int attempts) {
+        long exponent = Math.max(0, Math.min(attempts - 1, 30));
+        long cappedMs = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << exponent);
+        long halfMs = cappedMs / 2;
+        return Duration.ofMillis(halfMs + ThreadLocalRandom.current().nextLong(halfMs + 1));
+    }
+
+    public List<DeliveryState> findForPost(Long postId) {
+        return postDeliveryRepository.findStatesByPostId(postId);
+    }
+
+    /**
+     * Forgets the deliveries of accounts that are no longer targets of the post. Nothing
+     * sends to those accounts any more, so a failed row of theirs would only come up for
+     * retry again and again.
+     */
+    public void retainTargets(Long postId, Collection<SocialAccount> targets) {
+        if (targets.isEmpty()) {
+            postDeliveryRepository.deleteByPostId(postId);
+            return;
+        }
+        postDeliveryRepository.deleteByPostIdAndSocialAccountIdNotIn(postId,
+                targets.stream().map(SocialAccount::getId).toList());
+    }
+
+    /**
+     * Forgets all deliveries of a post, e.g. because its content changed and the next
+     * publish is a new revision that every target must receive.
+     */
+    public void reset(Long postId) {
+        postDeliveryRepository.deleteByPostId(postId);
+    }
+}
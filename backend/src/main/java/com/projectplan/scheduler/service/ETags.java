@@ -0,0 +1,36 @@
+package com.projectplan.scheduler.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Builds the ETags of list responses. Each one carries the representation version, so a
+ * deploy that changes what a response looks like cannot answer an old copy with 304.
+ */
+final class ETags {
+
+    // Bump when the JSON of a response with an ETag changes shape. Every instance and every
+    // restart of the same build shares it, so clients keep getting 304s across them.
+    private static final String REPRESENTATION = "r1";
+
+    private ETags() {
+    }
+
+    static String of(String validator) {
+        return REPRESENTATION + "-" + validator;
+    }
+
+    /**
+     * An ETag for content that has no version of its own: a digest of its fields.
+     */
+    static String ofContent(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return of(HexFormat.of().formatHex(digest, 0, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.projectplan.scheduler.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.projectplan.scheduler.model.IdempotencyRecord;
+import com.projectplan.scheduler.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Remembers responses to requests sent with an Idempotency-Key so that a retried request
+ * gets the original response instead of being executed again.
+ *
+ * The table is the source of truth and also serialises concurrent requests with the same key
+ * through its unique constraint. Completed responses are additionally kept in a bounded,
+ * expiring in-memory cache, so replays of hot keys do not touch the database.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public sealed interface Outcome permits Proceed, Replay, InProgress, Mismatch {
+    }
+
+    /** First time this key is seen: run the request, then call complete or abandon. */
+    public record Proceed(Long recordId) implements Outcome {
+    }
+
+    /** The key was used before with the same request: send this response again. */
+    public record Replay(StoredResponse response) implements Outcome {
+    }
+
+    /** A request with this key is still running. */
+    public record InProgress() implements Outcome {
+    }
+
+    /** The key was used before for a different request body. */
+    public record Mismatch() implements Outcome {
+    }
+
+    public record StoredResponse(String requestHash, int status, String body, String contentType, String location) {
+    }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+    private final Cache<String, StoredResponse> completed;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${idempotency.in-progress-timeout:PT1M}") Duration inProgressTimeout,
+                              @Value("${idempotency.cache.max-size:10000}") long cacheMaxSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = ttl;
+        this.inProgressTimeout = inProgressTimeout;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Outcome begin(String key, String scope, String requestHash) {
+        StoredResponse cached = completed.getIfPresent(cacheKey(key, scope));
+        if (cached != null) {
+            return cached.requestHash().equals(requestHash) ? new Replay(cached) : new Mismatch();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(key);
+        record.setScope(scope);
+        record.setRequestHash(requestHash);
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plus(ttl));
+        try {
+            return new Proceed(idempotencyRecordRepository.save(record).getId());
+        } catch (DataIntegrityViolationException e) {
+            // The key is already taken; decide from the existing record
+        }
+
+        Optional<IdempotencyRecord> found = idempotencyRecordRepository.findByIdempotencyKeyAndScope(key, scope);
+        if (found.isEmpty()) {
+            return new InProgress();
+        }
+        IdempotencyRecord existing = found.get();
+        if (existing.getExpiresAt().isBefore(now)) {
+            // Expired but not purged yet: the key is free again
+            idempotencyRecordRepository.deleteById(existing.getId());
+            return begin(key, scope, requestHash);
+        }
+        if (!existing.getRequestHash().equals(requestHash)) {
+            return new Mismatch();
+        }
+        if (existing.getResponseStatus() != null) {
+            StoredResponse stored = new StoredResponse(existing.getRequestHash(), existing.getResponseStatus(),
+                    existing.getResponseBody(), existing.getContentType(), existing.getLocation());
+            completed.put(cacheKey(key, scope), stored);
+            return new Replay(stored);
+        }
+        if (idempotencyRecordRepository.takeOver(existing.getId(), requestHash, now, now.minus(inProgressTimeout)) == 1) {
+            logger.warn("Taking over idempotency key {} for {} left in progress", key, scope);
+            return new Proceed(existing.getId());
+        }
+        return new InProgress();
+    }
+
+    public void complete(Long recordId, String key, String scope, StoredResponse response) {
+        idempotencyRecordRepository.complete(recordId, response.status(), response.body(), response.contentType(), response.location());
+        completed.put(cacheKey(key, scope), response);
+    }
+
+    /**
+     * Frees the key after a failed request (5xx or exception) so that a retry runs again.
+     */
+    public void abandon(Long recordId) {
+        idempotencyRecordRepository.deleteById(recordId);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency record(s)", purged);
+        }
+    }
+
+    private static String cacheKey(String key, String scope) {
+        return scope + '\n' + key;
+    }
+}
@@ -2,6 +2,7 @@ package com.projectplan.scheduler.service;
 
 import com.projectplan.scheduler.repository.SocialAccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -14,6 +15,12 @@ public class LinkedInService {
     @Autowired
     private SocialAccountRepository socialAccountRepository;
 
+    @Autowired
+    private SocialAccountQueryService socialAccountQueryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private final String authServiceUrl = "http://localhost:8081";
 
     public void connectLinkedInAccount(String code, Long socialAccountId) {
@@ -32,6 +39,8 @@ public class LinkedInService {
             account.setStatus(com.projectplan.scheduler.model.SocialAccountStatus.CONNECTED);
             // You would also store the access token and other details here.
             socialAccountRepository.save(account);
+            socialAccountQueryService.evictWorkspace(account.getWorkspace().getId());
+            eventPublisher.publishEvent(new WorkspaceChangeEvent(account.getWorkspace().getId(), WorkspaceChangeEvent.CHANNEL_CHANGED, socialAccountId));
         });
     }
 }
@@ -0,0 +1,12 @@
+package com.projectplan.scheduler.service;
+
+/**
+ * Published whenever a workspace membership is created, changes role or is removed, and
+ * when a workspace is deleted. {@code userId} is null when every member is affected.
+ */
+public record MembershipChangedEvent(Long workspaceId, String userId) {
+
+    public static MembershipChangedEvent allMembers(Long workspaceId) {
+        return new MembershipChangedEvent(workspaceId, null);
+    }
+}
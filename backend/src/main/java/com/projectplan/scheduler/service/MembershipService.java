@@ -0,0 +1,47 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.model.UserRole;
+import com.projectplan.scheduler.repository.UserWorkspaceRepository;
+import org.springframework.stereotype.Service;
+
+/**
+ * Role lookups for permission checks. A check reads the one membership row through the
+ * (workspaceId, userId) index rather than loading the workspace with all its members and
+ * their users.
+ *
+ * Nothing here is cached: every caller is about to change the workspace on the strength of
+ * the answer, so it must see a role revoked a moment ago, on this instance or any other.
+ */
+@Service
+public class MembershipService {
+
+    private final UserWorkspaceRepository userWorkspaceRepository;
+
+    public MembershipService(UserWorkspaceRepository userWorkspaceRepository) {
+        this.userWorkspaceRepository = userWorkspaceRepository;
+    }
+
+    /**
+     * @return the user's role in the workspace, or null if they are not a member
+     */
+    public UserRole roleOf(String userId, Long workspaceId) {
+        return userId == null ? null : userWorkspaceRepository.findRole(userId, workspaceId).orElse(null);
+    }
+
+    public boolean isMember(String userId, Long workspaceId) {
+        return roleOf(userId, workspaceId) != null;
+    }
+
+    public boolean isAdmin(String userId, Long workspaceId) {
+        return roleOf(userId, workspaceId) == UserRole.ADMINISTRATOR;
+    }
+
+    /**
+     * Counts the workspace's administrators and keeps them locked until the caller's transaction
+     * ends, so the last-admin guard holds under concurrent demotions and removals. Call it
+     * inside the transaction that makes the change.
+     */
+    public long countAdmins(Long workspaceId) {
+        return userWorkspaceRepository.lockAdminIds(workspaceId).size();
+    }
+}
@@ -0,0 +1,18 @@
+package com.projectplan.scheduler.service;
+
+/**
+ * A publish failure that retrying cannot fix, e.g. a missing webhook URL or a provider
+ * rejecting the request with a 4xx. The delivery goes straight to the dead-letter store.
+ */
+public class PermanentPublishException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PermanentPublishException(String message) {
+        super(message);
+    }
+
+    public PermanentPublishException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
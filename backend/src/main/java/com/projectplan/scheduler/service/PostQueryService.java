@@ -0,0 +1,81 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.dto.CalendarResponse;
+import com.projectplan.scheduler.dto.PostSummary;
+import com.projectplan.scheduler.dto.PostSummary.TargetSummary;
+import com.projectplan.scheduler.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Read model for post lists. A page of N posts costs two queries in total (posts with
+ * their comment counts, then their targets) instead of one query plus two per post for
+ * the collections of the entity.
+ */
+@Service
+public class PostQueryService {
+
+    /** Upper bound on slots returned for one calendar range. */
+    private static final int MAX_CALENDAR_SLOTS = 2000;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    public List<PostSummary> toSummaries(List<PostRepository.PostRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> postIds = rows.stream().map(PostRepository.PostRow::getId).toList();
+
+        Map<Long, List<TargetSummary>> targets = postRepository.findTargetRows(postIds).stream()
+                .sorted(Comparator.comparing(PostRepository.TargetRow::getId))
+                .collect(Collectors.groupingBy(PostRepository.TargetRow::getPostId,
+                        Collectors.mapping(row -> new TargetSummary(row.getId(), row.getName(), row.getProvider(), row.getStatus()),
+                                Collectors.toList())));
+
+        return rows.stream()
+                .map(row -> new PostSummary(row.getId(), row.getContent(), row.getStatus(), row.getCreatedAt(),
+                        row.getAuthorId(), row.getScheduledAt(),
+                        row.getCommentCount(),
+                        targets.getOrDefault(row.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Posts scheduled in [from, to) as calendar slots: one range query for the slots and
+     * one for the providers of their targets, plus one group-by for the per-day counts if asked.
+     * One row past the cap is read to tell whether the range had more slots than are returned.
+     */
+    public CalendarResponse toCalendar(Long workspaceId, LocalDateTime from, LocalDateTime to, boolean includeCounts) {
+        List<PostRepository.CalendarRow> rows =
+                postRepository.findCalendarSlots(workspaceId, from, to, PageRequest.of(0, MAX_CALENDAR_SLOTS + 1));
+        boolean truncated = rows.size() > MAX_CALENDAR_SLOTS;
+        if (truncated) {
+            rows = rows.subList(0, MAX_CALENDAR_SLOTS);
+        }
+
+        Map<Long, List<String>> providers = rows.isEmpty() ? Map.of() : postRepository
+                .findTargetProviders(rows.stream().map(PostRepository.CalendarRow::getId).toList()).stream()
+                .collect(Collectors.groupingBy(PostRepository.TargetProviderRow::getPostId,
+                        Collectors.mapping(PostRepository.TargetProviderRow::getProvider, Collectors.toList())));
+
+        List<CalendarResponse.Slot> slots = rows.stream()
+                .map(row -> new CalendarResponse.Slot(row.getId(), row.getStatus(), row.getScheduledAt(), row.getTitle(),
+                        providers.getOrDefault(row.getId(), List.of())))
+                .toList();
+
+        List<CalendarResponse.DayCount> dayCounts = includeCounts
+                ? postRepository.countScheduledPerDay(workspaceId, from, to).stream()
+                        .map(row -> new CalendarResponse.DayCount(row.getDay(), row.getCount()))
+                        .toList()
+                : null;
+        return new CalendarResponse(slots, truncated, dayCounts);
+    }
+}
@@ -0,0 +1,185 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.dto.PostCursor;
+import com.projectplan.scheduler.dto.PostSearchResult;
+import com.projectplan.scheduler.model.PostStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Searches a workspace's posts by their content and their comments, newest first, in
+ * keyset pages like the post listings.
+ *
+ * On Postgres, "Post" and "Comment" carry a generated tsvector column with a GIN index,
+ * added by the V1 and V2 migrations, and queries match with websearch_to_tsquery and
+ * highlight with ts_headline.
+ * Highlights are HTML: the text is escaped before the mark tags go in, in SQL for
+ * ts_headline and in Java for the fallback.
+ * The 'simple' configuration is used, so words are matched as typed, in any language.
+ * Where that is not available the same search falls back to a case-insensitive substring
+ * match, highlighted in Java.
+ */
+@Service
+public class PostSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchService.class);
+
+    // Physical names of the Post, Comment, PostTarget and SocialAccount tables after Spring's naming strategy
+    private static final String POST_TABLE = "\"post\"";
+    private static final String COMMENT_TABLE = "\"comment\"";
+    private static final String POST_TARGET_TABLE = "\"post_target\"";
+    private static final String SOCIAL_ACCOUNT_TABLE = "\"social_account\"";
+
+    private static final List<String> SEARCH_INDEXES = List.of("idx_post_search_vector", "idx_comment_search_vector");
+
+    private static final String HEADLINE_OPTIONS = "StartSel=<mark>, StopSel=</mark>, MinWords=15, MaxWords=35";
+    private static final int FALLBACK_SNIPPET_RADIUS = 80;
+
+    public record Filters(PostStatus status, String provider, LocalDateTime from, LocalDateTime to) {
+    }
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseSupport databaseSupport;
+
+    private volatile boolean fullText;
+
+    /**
+     * Uses full-text search once the migrations have added the columns. A missing or invalid
+     * index does not change the results, only makes each search scan, so it is reported.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void detectFullText() {
+        if (!databaseSupport.isPostgres()) {
+            return;
+        }
+        if (!databaseSupport.hasColumn("post", "search_vector") || !databaseSupport.hasColumn("comment", "search_vector")) {
+            logger.warn("Full-text post search is not available, falling back to substring search: search_vector columns are missing");
+            return;
+        }
+        fullText = true;
+        for (String index : SEARCH_INDEXES) {
+            DatabaseSupport.IndexState state = databaseSupport.indexState(index);
+            if (state == DatabaseSupport.IndexState.INVALID) {
+                logger.warn("Index {} is invalid after a failed build, post search scans until it is rebuilt with REINDEX INDEX CONCURRENTLY {}",
+                        index, index);
+            } else if (state == DatabaseSupport.IndexState.MISSING) {
+                logger.warn("Index {} is missing, post search scans until the migrations have run", index);
+            }
+        }
+    }
+
+    /**
+     * @return up to {@code limit} matches after {@code after}; callers ask for one more than
+     *         a page to learn whether there is a next one
+     */
+    public List<PostSearchResult> search(Long workspaceId, String query, Filters filters, PostCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("workspaceId", workspaceId)
+                .addValue("limit", limit);
+        StringBuilder sql = new StringBuilder();
+        if (fullText) {
+            params.addValue("query", query);
+            sql.append("select p.id, p.status, p.created_at, p.scheduled_at, ")
+               .append("ts_headline('simple', ").append(escapedHtml("coalesce(p.content, '')")).append(", q.query, '").append(HEADLINE_OPTIONS).append("') as content_highlight, ")
+               .append("(select ts_headline('simple', ").append(escapedHtml("c.text")).append(", q.query, '").append(HEADLINE_OPTIONS).append("') from ").append(COMMENT_TABLE)
+               .append(" c where c.post_id = p.id and c.search_vector @@ q.query order by c.created_at limit 1) as comment_highlight ")
+               .append("from ").append(POST_TABLE).append(" p, websearch_to_tsquery('simple', :query) q(query) ")
+               .append("where p.workspace_id = :workspaceId and (p.search_vector @@ q.query or exists (select 1 from ")
+               .append(COMMENT_TABLE).append(" c where c.post_id = p.id and c.search_vector @@ q.query))");
+        } else {
+            params.addValue("pattern", "%" + DatabaseSupport.escapeLike(query.toLowerCase(Locale.ROOT)) + "%");
+            sql.append("select p.id, p.status, p.created_at, p.scheduled_at, p.content as content_highlight, ")
+               .append("(select min(c.text) from ").append(COMMENT_TABLE)
+               .append(" c where c.post_id = p.id and lower(c.text) like :pattern escape '\\') as comment_highlight ")
+               .append("from ").append(POST_TABLE).append(" p ")
+               .append("where p.workspace_id = :workspaceId and (lower(p.content) like :pattern escape '\\' or exists (select 1 from ")
+               .append(COMMENT_TABLE).append(" c where c.post_id = p.id and lower(c.text) like :pattern escape '\\'))");
+        }
+
+        if (filters.status() != null) {
+            sql.append(" and p.status = :status");
+            params.addValue("status", filters.status().name());
+        }
+        if (filters.provider() != null) {
+            sql.append(" and exists (select 1 from ").append(POST_TARGET_TABLE).append(" t join ").append(SOCIAL_ACCOUNT_TABLE)
+               .append(" a on a.id = t.social_account_id where t.post_id = p.id and a.provider = :provider)");
+            params.addValue("provider", filters.provider());
+        }
+        if (filters.from() != null) {
+            sql.append(" and p.created_at >= :from");
+            params.addValue("from", filters.from());
+        }
+        if (filters.to() != null) {
+            sql.append(" and p.created_at < :to");
+            params.addValue("to", filters.to());
+        }
+        if (after != null) {
+            sql.append(" and p.created_at <= :createdAt and (p.created_at < :createdAt or p.id < :id)");
+            params.addValue("createdAt", after.createdAt()).addValue("id", after.id());
+        }
+        sql.append(" order by p.created_at desc, p.id desc limit :limit");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> toResult(rs, query));
+    }
+
+    private PostSearchResult toResult(ResultSet rs, String query) throws SQLException {
+        String content = rs.getString("content_highlight");
+        String comment = rs.getString("comment_highlight");
+        if (!fullText) {
+            content = highlight(content, query);
+            comment = highlight(comment, query);
+        }
+        return new PostSearchResult(
+                rs.getLong("id"),
+                PostStatus.valueOf(rs.getString("status")),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("scheduled_at", LocalDateTime.class),
+                content,
+                comment);
+    }
+
+    /**
+     * The SQL for an HTML-escaped copy of {@code expression}, escaping the same characters
+     * as {@link HtmlUtils#htmlEscape}. The parser skips the entities, so matching is unchanged.
+     */
+    private static String escapedHtml(String expression) {
+        return "replace(replace(replace(replace(replace(" + expression
+                + ", '&', '&amp;'), '<', '&lt;'), '>', '&gt;'), '\"', '&quot;'), '''', '&#39;')";
+    }
+
+    /**
+     * An HTML-escaped excerpt around the first occurrence of the query with it wrapped in mark tags.
+     */
+    private static String highlight(String text, String query) {
+        if (text == null) {
+            return null;
+        }
+        int at = text.toLowerCase(Locale.ROOT).indexOf(query.toLowerCase(Locale.ROOT));
+        if (at < 0) {
+            return HtmlUtils.htmlEscape(text.length() <= 2 * FALLBACK_SNIPPET_RADIUS ? text : text.substring(0, 2 * FALLBACK_SNIPPET_RADIUS));
+        }
+        int end = at + query.length();
+        int start = Math.max(0, at - FALLBACK_SNIPPET_RADIUS);
+        int stop = Math.min(text.length(), end + FALLBACK_SNIPPET_RADIUS);
+        return HtmlUtils.htmlEscape(text.substring(start, at))
+                + "<mark>" + HtmlUtils.htmlEscape(text.substring(at, end)) + "</mark>"
+                + HtmlUtils.htmlEscape(text.substring(end, stop));
+    }
+
+}
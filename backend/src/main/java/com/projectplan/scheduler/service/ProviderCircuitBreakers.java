@@ -0,0 +1,121 @@
+package com.projectplan.scheduler.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breakers around outbound publish calls, one per provider and one per remote host.
+ *
+ * While a provider or host is down, calls are rejected with {@link CircuitOpenException}
+ * instead of each one waiting for a connect or read timeout; the delivery is parked until
+ * the next probe. Only outages count as failures (I/O errors, timeouts, 5xx); a 4xx means
+ * the remote side is up and answered.
+ *
+ * State is exported as the {@code publishing.circuit.state} gauge (0 closed, 1 open,
+ * 2 half-open) tagged with the breaker name.
+ */
+@Service
+public class ProviderCircuitBreakers {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderCircuitBreakers.class);
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    public ProviderCircuitBreakers(MeterRegistry meterRegistry,
+                                   @Value("${publishing.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                   @Value("${publishing.circuit-breaker.open-duration:PT30S}") Duration openDuration) {
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Runs the call if neither the provider's nor the host's circuit is open and records
+     * its outcome on both.
+     */
+    public <T> T call(String provider, String host, Supplier<T> call) {
+        CircuitBreaker providerBreaker = breaker("provider:" + provider.toLowerCase(Locale.ROOT));
+        CircuitBreaker hostBreaker = breaker("host:" + host.toLowerCase(Locale.ROOT));
+
+        long now = System.nanoTime();
+        if (!providerBreaker.tryAcquire(now)) {
+            throw rejected(provider, provider, providerBreaker, now);
+        }
+        if (!hostBreaker.tryAcquire(now)) {
+            providerBreaker.releaseProbe(now);
+            throw rejected(provider, host, hostBreaker, now);
+        }
+
+        try {
+            T result = call.get();
+            onSuccess(provider, providerBreaker);
+            onSuccess(host, hostBreaker);
+            return result;
+        } catch (RuntimeException e) {
+            if (isOutage(e)) {
+                long failedAt = System.nanoTime();
+                onFailure(provider, providerBreaker, failedAt, e);
+                onFailure(host, hostBreaker, failedAt, e);
+            } else {
+                onSuccess(provider, providerBreaker);
+                onSuccess(host, hostBreaker);
+            }
+            throw e;
+        }
+    }
+
+    private CircuitOpenException rejected(String provider, String name, CircuitBreaker breaker, long now) {
+        meterRegistry.counter("publishing.circuit.rejected", "provider", provider).increment();
+        // Spread parked deliveries over half an open period so they don't all hit the next probe
+        long jitterNanos = ThreadLocalRandom.current().nextLong(openDuration.toNanos() / 2 + 1);
+        return new CircuitOpenException("Circuit for " + name + " is open",
+                Duration.ofNanos(breaker.nanosUntilProbe(now) + jitterNanos));
+    }
+
+    private void onSuccess(String name, CircuitBreaker breaker) {
+        if (breaker.onSuccess() != CircuitBreaker.State.CLOSED) {
+            logger.info("Circuit for {} closed", name);
+        }
+    }
+
+    private void onFailure(String name, CircuitBreaker breaker, long now, RuntimeException error) {
+        if (breaker.onFailure(now)) {
+            logger.warn("Circuit for {} opened for {} s: {}", name, openDuration.toSeconds(), error.getMessage());
+        }
+    }
+
+    private CircuitBreaker breaker(String name) {
+        return breakers.computeIfAbsent(name, key -> {
+            CircuitBreaker breaker = new CircuitBreaker(failureThreshold, openDuration.toNanos());
+            Gauge.builder("publishing.circuit.state", breaker, b -> b.state().ordinal())
+                    .tag("name", key)
+                    .register(meterRegistry);
+            return breaker;
+        });
+    }
+
+    private static boolean isOutage(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ResourceAccessException || cause instanceof HttpServerErrorException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
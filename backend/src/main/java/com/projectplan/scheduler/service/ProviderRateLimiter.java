@@ -0,0 +1,244 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.model.SocialAccount;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces outbound sends per provider and per target account.
+ *
+ * Every send takes a permit from two token buckets: the provider-wide one (e.g. Discord's
+ * global per-client limit) and the one for its account (one Discord webhook, one LinkedIn
+ * member). Buckets are lock-free, so sends to different targets never contend. Account
+ * buckets are kept in a bounded cache and dropped once they have been idle long enough to
+ * be full again, so accounts that no longer send do not pile up. Rate-limit headers and 429 responses feed back into the buckets,
+ * so once a provider says "wait", every send to that bucket waits rather than burning
+ * requests on further 429s.
+ */
+@Service
+public class ProviderRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderRateLimiter.class);
+
+    // Used when a 429 carries neither Retry-After nor a reset hint
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final Map<String, TokenBucket> globalBuckets = new ConcurrentHashMap<>();
+    private final Cache<String, TokenBucket> targetBuckets;
+    private final Map<String, Limits> limits;
+    private final Duration maxWait;
+    private final MeterRegistry meterRegistry;
+
+    public ProviderRateLimiter(MeterRegistry meterRegistry,
+                               @Value("${publishing.rate-limit.max-wait:PT5S}") Duration maxWait,
+                               @Value("${publishing.rate-limit.discord.per-target-permits:5}") int discordTargetPermits,
+                               @Value("${publishing.rate-limit.discord.per-target-period:PT2S}") Duration discordTargetPeriod,
+                               @Value("${publishing.rate-limit.discord.global-permits:50}") int discordGlobalPermits,
+                               @Value("${publishing.rate-limit.discord.global-period:PT1S}") Duration discordGlobalPeriod,
+                               @Value("${publishing.rate-limit.linkedin.per-target-permits:150}") int linkedInTargetPermits,
+                               @Value("${publishing.rate-limit.linkedin.per-target-period:PT24H}") Duration linkedInTargetPeriod,
+                               @Value("${publishing.rate-limit.linkedin.global-permits:100000}") int linkedInGlobalPermits,
+                               @Value("${publishing.rate-limit.linkedin.global-period:PT24H}") Duration linkedInGlobalPeriod,
+                               @Value("${publishing.rate-limit.max-target-buckets:100000}") long maxTargetBuckets) {
+        this.meterRegistry = meterRegistry;
+        this.targetBuckets = Caffeine.newBuilder()
+                .maximumSize(maxTargetBuckets)
+                .expireAfter(new Expiry<String, TokenBucket>() {
+                    @Override
+                    public long expireAfterCreate(String key, TokenBucket bucket, long currentTime) {
+                        return bucket.periodNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+                        return Math.max(currentDuration, bucket.periodNanos());
+                    }
+                })
+                .build();
+        this.maxWait = maxWait;
+        this.limits = Map.of(
+                "discord", new Limits(discordTargetPermits, discordTargetPeriod, discordGlobalPermits, discordGlobalPeriod),
+                "linkedin", new Limits(linkedInTargetPermits, linkedInTargetPeriod, linkedInGlobalPermits, linkedInGlobalPeriod));
+    }
+
+    /**
+     * Blocks until the target may be sent to. Waits of up to {@code publishing.rate-limit.max-wait}
+     * happen in-line; longer ones throw {@link RateLimitedException} so the delivery can be
+     * deferred instead of holding a thread.
+     */
+    public void acquire(SocialAccount target) {
+        String provider = provider(target);
+        Limits providerLimits = limits.get(provider);
+        if (providerLimits == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long maxWaitNanos = maxWait.toNanos();
+
+        TokenBucket targetBucket = targetBucket(target, providerLimits);
+        long targetWait = targetBucket.reserve(now, maxWaitNanos);
+        expireWhenIdle(target, targetBucket);
+        if (targetWait < 0) {
+            throw deferred(provider, "Rate limit for " + target.getName() + " exhausted", targetBucket.nanosUntilAvailable(now));
+        }
+        TokenBucket globalBucket = globalBucket(provider, providerLimits);
+        long globalWait = globalBucket.reserve(now, maxWaitNanos);
+        if (globalWait < 0) {
+            // Nothing is sent, so the target's permit goes back
+            targetBucket.refund();
+            throw deferred(provider, "Global " + provider + " rate limit exhausted", globalBucket.nanosUntilAvailable(now));
+        }
+
+        long waitNanos = Math.max(targetWait, globalWait);
+        if (waitNanos > 0) {
+            meterRegistry.timer("publishing.rate_limit.wait", "provider", provider).record(waitNanos, TimeUnit.NANOSECONDS);
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RateLimitedException("Interrupted while waiting for a " + provider + " permit", Duration.ofNanos(waitNanos));
+            }
+        }
+    }
+
+    /**
+     * Applies the rate-limit headers of a successful response: when the provider reports the
+     * bucket as empty, no further sends go out until it resets.
+     */
+    public void onResponse(SocialAccount target, HttpHeaders headers) {
+        Limits providerLimits = limits.get(provider(target));
+        if (providerLimits == null || headers == null) {
+            return;
+        }
+        if ("0".equals(headers.getFirst("X-RateLimit-Remaining"))) {
+            Duration resetAfter = parseSeconds(headers.getFirst("X-RateLimit-Reset-After"));
+            if (resetAfter != null) {
+                blockTarget(target, providerLimits, System.nanoTime() + resetAfter.toNanos());
+            }
+        }
+    }
+
+    /**
+     * Records a 429 from the provider and returns how long it asked us to back off.
+     * Discord flags limits shared by all webhooks with {@code X-RateLimit-Global}.
+     */
+    public Duration onRateLimited(SocialAccount target, HttpClientErrorException.TooManyRequests error) {
+        String provider = provider(target);
+        HttpHeaders headers = error.getResponseHeaders() != null ? error.getResponseHeaders() : new HttpHeaders();
+        Duration retryAfter = retryAfter(headers, error);
+
+        meterRegistry.counter("publishing.rate_limit.throttled", "provider", provider).increment();
+        Limits providerLimits = limits.get(provider);
+        if (providerLimits != null) {
+            long until = System.nanoTime() + retryAfter.toNanos();
+            if ("true".equalsIgnoreCase(headers.getFirst("X-RateLimit-Global"))) {
+                globalBucket(provider, providerLimits).blockUntil(until);
+            } else {
+                blockTarget(target, providerLimits, until);
+            }
+        }
+        logger.warn("{} throttled sends to {}; backing off for {} ms", provider, target.getName(), retryAfter.toMillis());
+        return retryAfter;
+    }
+
+    private RateLimitedException deferred(String provider, String message, long waitNanos) {
+        meterRegistry.counter("publishing.rate_limit.deferred", "provider", provider).increment();
+        return new RateLimitedException(message, Duration.ofNanos(waitNanos));
+    }
+
+    private TokenBucket targetBucket(SocialAccount target, Limits providerLimits) {
+        return targetBuckets.get(targetKey(target),
+                key -> new TokenBucket(providerLimits.targetPermits(), providerLimits.targetPeriod(), System.nanoTime()));
+    }
+
+    private void blockTarget(SocialAccount target, Limits providerLimits, long untilNanos) {
+        TokenBucket bucket = targetBucket(target, providerLimits);
+        bucket.blockUntil(untilNanos);
+        expireWhenIdle(target, bucket);
+    }
+
+    private static String targetKey(SocialAccount target) {
+        return provider(target) + ":account:" + target.getId();
+    }
+
+    /**
+     * Keeps an account bucket until it is idle (full and unblocked) again. Called after the
+     * bucket changed; until then a lookup keeps it for at least one period, so the change
+     * that follows the lookup cannot be lost to an eviction.
+     */
+    private void expireWhenIdle(SocialAccount target, TokenBucket bucket) {
+        long idleNanos = Math.max(1, bucket.nanosUntilIdle(System.nanoTime()));
+        targetBuckets.policy().expireVariably()
+                .ifPresent(expiry -> expiry.setExpiresAfter(targetKey(target), idleNanos, TimeUnit.NANOSECONDS));
+    }
+
+    private TokenBucket globalBucket(String provider, Limits providerLimits) {
+        return globalBuckets.computeIfAbsent(provider,
+                key -> new TokenBucket(providerLimits.globalPermits(), providerLimits.globalPeriod(), System.nanoTime()));
+    }
+
+    private static String provider(SocialAccount target) {
+        return target.getProvider() == null ? "" : target.getProvider().toLowerCase(Locale.ROOT);
+    }
+
+    private static Duration retryAfter(HttpHeaders headers, HttpClientErrorException error) {
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        Duration parsed = parseSeconds(retryAfter);
+        if (parsed == null && retryAfter != null) {
+            try {
+                parsed = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME));
+            } catch (RuntimeException ignored) {
+                // Neither seconds nor an HTTP date
+            }
+        }
+        if (parsed == null) {
+            parsed = parseSeconds(headers.getFirst("X-RateLimit-Reset-After"));
+        }
+        if (parsed == null) {
+            // Discord repeats the wait in the JSON body as "retry_after"
+            try {
+                Map<?, ?> body = error.getResponseBodyAs(Map.class);
+                Object bodyRetryAfter = body != null ? body.get("retry_after") : null;
+                parsed = bodyRetryAfter != null ? parseSeconds(bodyRetryAfter.toString()) : null;
+            } catch (RuntimeException ignored) {
+                // Not a JSON body
+            }
+        }
+        return parsed == null || parsed.isNegative() ? DEFAULT_RETRY_AFTER : parsed;
+    }
+
+    private static Duration parseSeconds(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofMillis((long) Math.ceil(Double.parseDouble(value.trim()) * 1000));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Limits(int targetPermits, Duration targetPeriod, int globalPermits, Duration globalPeriod) {
+    }
+}
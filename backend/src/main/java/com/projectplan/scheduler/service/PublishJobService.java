@@ -0,0 +1,233 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.dto.PublishJobResponse;
+import com.projectplan.scheduler.dto.PublishJobResponse.TargetProgress;
+import com.projectplan.scheduler.model.Post;
+import com.projectplan.scheduler.model.PostDelivery;
+import com.projectplan.scheduler.model.PostStatus;
+import com.projectplan.scheduler.model.PublishJob;
+import com.projectplan.scheduler.model.PublishJobStatus;
+import com.projectplan.scheduler.repository.PostDeliveryRepository;
+import com.projectplan.scheduler.repository.PostRepository;
+import com.projectplan.scheduler.repository.PublishJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs publishes in the background so the API can answer 202 right away.
+ *
+ * Jobs are persisted before they are handed to the worker pool. If the pool's queue is full,
+ * or the instance restarts, a queued job is simply picked up by the next recovery poll; the
+ * QUEUED -> RUNNING claim makes sure only one worker runs it.
+ */
+@Service
+public class PublishJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishJobService.class);
+
+    private static final Set<PublishJobStatus> ACTIVE = EnumSet.of(PublishJobStatus.QUEUED, PublishJobStatus.RUNNING);
+
+    private final PublishJobRepository publishJobRepository;
+    private final PostRepository postRepository;
+    private final PostDeliveryRepository postDeliveryRepository;
+    private final PublishingService publishingService;
+    private final PublishRetryService publishRetryService;
+
+    private final Duration pickupDelay;
+    private final Duration staleAfter;
+    private final int batchSize;
+    private final ThreadPoolExecutor workers;
+
+    // Jobs handed to the pool and not finished yet, so the recovery poll does not submit them twice
+    private final Set<Long> submitted = ConcurrentHashMap.newKeySet();
+
+    public PublishJobService(PublishJobRepository publishJobRepository,
+                             PostRepository postRepository,
+                             PostDeliveryRepository postDeliveryRepository,
+                             PublishingService publishingService,
+                             PublishRetryService publishRetryService,
+                             @Value("${publishing.jobs.concurrency:16}") int concurrency,
+                             @Value("${publishing.jobs.queue-capacity:1000}") int queueCapacity,
+                             @Value("${publishing.jobs.pickup-delay:PT10S}") Duration pickupDelay,
+                             @Value("${publishing.jobs.stale-after:PT5M}") Duration staleAfter,
+                             @Value("${publishing.jobs.batch-size:200}") int batchSize) {
+        this.publishJobRepository = publishJobRepository;
+        this.postRepository = postRepository;
+        this.postDeliveryRepository = postDeliveryRepository;
+        this.publishingService = publishingService;
+        this.publishRetryService = publishRetryService;
+        this.pickupDelay = pickupDelay;
+        this.staleAfter = staleAfter;
+        this.batchSize = batchSize;
+        this.workers = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity));
+    }
+
+    /**
+     * Queues a publish of the post. If one is already queued or running, that job is
+     * returned instead of starting a second one.
+     */
+    public PublishJob enqueue(Long postId) {
+        Optional<PublishJob> active = publishJobRepository.findFirstByPostIdAndStatusInOrderByIdDesc(postId, ACTIVE);
+        if (active.isPresent()) {
+            return active.get();
+        }
+        PublishJob saved;
+        try {
+            saved = publishJobRepository.save(newJob(postId, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request queued one first
+            return publishJobRepository.findFirstByPostIdAndStatusInOrderByIdDesc(postId, ACTIVE).orElseThrow(() -> e);
+        }
+        submit(saved.getId());
+        return saved;
+    }
+
+    /**
+     * Bulk form of {@link #enqueue(Long)}: looks up active jobs for all posts in one query,
+     * stores the new ones in one transaction and queues them. Returns the job per post id.
+     */
+    public Map<Long, PublishJob> enqueueAll(Collection<Long> postIds) {
+        Map<Long, PublishJob> jobs = new LinkedHashMap<>();
+        for (PublishJob active : publishJobRepository.findAllByPostIdInAndStatusIn(postIds, ACTIVE)) {
+            jobs.merge(active.getPostId(), active, (a, b) -> a.getId() > b.getId() ? a : b);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<PublishJob> created = new ArrayList<>();
+        for (Long postId : postIds) {
+            if (!jobs.containsKey(postId)) {
+                created.add(newJob(postId, now));
+            }
+        }
+        try {
+            for (PublishJob job : publishJobRepository.saveAll(created)) {
+                jobs.put(job.getPostId(), job);
+                submit(job.getId());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Another request queued some of these posts first; the batch was rolled back, so take them one by one
+            for (PublishJob job : created) {
+                jobs.put(job.getPostId(), enqueue(job.getPostId()));
+            }
+        }
+        return jobs;
+    }
+
+    private static PublishJob newJob(Long postId, LocalDateTime now) {
+        PublishJob job = new PublishJob();
+        job.setPostId(postId);
+        job.setActivePostId(postId);
+        job.setStatus(PublishJobStatus.QUEUED);
+        job.setCreatedAt(now);
+        return job;
+    }
+
+    private void submit(Long jobId) {
+        if (!submitted.add(jobId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    submitted.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool is saturated; the job stays QUEUED and the recovery poll submits it later
+            submitted.remove(jobId);
+            logger.debug("Publish job {} deferred, worker queue full", jobId);
+        }
+    }
+
+    private void run(Long jobId) {
+        if (publishJobRepository.claim(jobId, LocalDateTime.now()) == 0) {
+            return;
+        }
+        PublishJob job = publishJobRepository.findById(jobId).orElse(null);
+        Post post = job != null ? postRepository.findPublishable(job.getPostId()).orElse(null) : null;
+        if (post == null) {
+            publishJobRepository.finish(jobId, PublishJobStatus.FAILED, null, "Post not found", LocalDateTime.now());
+            return;
+        }
+        try {
+            publishRetryService.startPublishing(post);
+            publishingService.publishToTargets(post);
+            // Failed targets stay with the retry pipeline; the job reports where the post stands now
+            PostStatus postStatus = publishRetryService.settle(post);
+            publishJobRepository.finish(jobId, PublishJobStatus.COMPLETED, postStatus, null, LocalDateTime.now());
+        } catch (Exception e) {
+            logger.error("Publish job {} for post {} failed", jobId, post.getId(), e);
+            publishJobRepository.finish(jobId, PublishJobStatus.FAILED, null, e.getMessage(), LocalDateTime.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${publishing.jobs.poll-interval:PT10S}")
+    public void recover() {
+        LocalDateTime now = LocalDateTime.now();
+        int requeued = publishJobRepository.requeueStale(now.minus(staleAfter));
+        if (requeued > 0) {
+            logger.warn("Re-queued {} publish job(s) abandoned while running", requeued);
+        }
+        for (Long jobId : publishJobRepository.findQueuedBefore(now.minus(pickupDelay), PageRequest.of(0, batchSize))) {
+            submit(jobId);
+        }
+    }
+
+    public Optional<PublishJobResponse> getJob(Long jobId) {
+        return publishJobRepository.findById(jobId).map(this::toResponse);
+    }
+
+    public PublishJobResponse toResponse(PublishJob job) {
+        Post post = postRepository.findById(job.getPostId()).orElse(null);
+        if (post == null) {
+            return new PublishJobResponse(job.getId(), job.getPostId(), job.getStatus(), job.getPostStatus(), job.getError(),
+                    job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt(), List.of());
+        }
+        Map<Long, PostDelivery> deliveries = postDeliveryRepository.findAllByPostId(post.getId()).stream()
+                .collect(Collectors.toMap(PostDelivery::getSocialAccountId, Function.identity()));
+        List<TargetProgress> targets = post.getTargets().stream()
+                .sorted(Comparator.comparing(target -> target.getId()))
+                .map(target -> {
+                    PostDelivery delivery = deliveries.get(target.getId());
+                    return delivery == null
+                            ? new TargetProgress(target.getId(), target.getName(), target.getProvider(), null, 0, null, null, null)
+                            : new TargetProgress(target.getId(), target.getName(), target.getProvider(), delivery.getStatus(),
+                                    delivery.getAttempts(), delivery.getLastError(), delivery.getNextAttemptAt(), delivery.getDeliveredAt());
+                })
+                .toList();
+        return new PublishJobResponse(job.getId(), job.getPostId(), job.getStatus(), post.getStatus(), job.getError(),
+                job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt(), targets);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
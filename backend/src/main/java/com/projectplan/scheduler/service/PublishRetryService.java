@@ -0,0 +1,208 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.dto.DeliveryState;
+import com.projectplan.scheduler.dto.PublishResult;
+import com.projectplan.scheduler.model.DeliveryStatus;
+import com.projectplan.scheduler.model.Post;
+import com.projectplan.scheduler.model.PostStatus;
+import com.projectplan.scheduler.model.SocialAccount;
+import com.projectplan.scheduler.repository.PostDeliveryRepository;
+import com.projectplan.scheduler.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Drives failed deliveries back through the publisher and settles post status.
+ *
+ * A post whose targets have not all succeeded stays PUBLISHING while any of its
+ * deliveries is still waiting for a retry, becomes PUBLISHED once every target
+ * succeeded, and FAILED once the remaining failures are dead-lettered.
+ */
+@Service
+public class PublishRetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishRetryService.class);
+
+    private final PostRepository postRepository;
+    private final PostDeliveryRepository postDeliveryRepository;
+    private final PublishingService publishingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeVersionService changeVersionService;
+    private final int batchSize;
+    private final Duration staleAfter;
+    private final ExecutorService retryExecutor;
+
+    private final Counter retriedCounter;
+    private final Counter failedPostsCounter;
+
+    public PublishRetryService(PostRepository postRepository,
+                               PostDeliveryRepository postDeliveryRepository,
+                               PublishingService publishingService,
+                               ApplicationEventPublisher eventPublisher,
+                               ChangeVersionService changeVersionService,
+                               MeterRegistry meterRegistry,
+                               @Value("${publishing.retry.batch-size:200}") int batchSize,
+                               @Value("${publishing.retry.concurrency:8}") int concurrency,
+                               @Value("${publishing.delivery.stale-after:PT5M}") Duration staleAfter) {
+        this.postRepository = postRepository;
+        this.postDeliveryRepository = postDeliveryRepository;
+        this.publishingService = publishingService;
+        this.eventPublisher = eventPublisher;
+        this.changeVersionService = changeVersionService;
+        this.batchSize = batchSize;
+        this.staleAfter = staleAfter;
+        this.retryExecutor = Executors.newFixedThreadPool(concurrency);
+        this.retriedCounter = meterRegistry.counter("publishing.retry.posts");
+        this.failedPostsCounter = meterRegistry.counter("publishing.retry.dead_lettered_posts");
+    }
+
+    /**
+     * Moves a post that an explicit publish request is about to send into PUBLISHING, from
+     * whatever status it had. Only a PUBLISHING post is settled or retried.
+     */
+    public void startPublishing(Post post) {
+        changeVersionService.updatePostsInWorkspace(post.getWorkspace().getId(),
+                () -> postRepository.updateStatus(post.getId(), PostStatus.PUBLISHING));
+        post.setStatus(PostStatus.PUBLISHING);
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(post.getWorkspace().getId(), WorkspaceChangeEvent.POST_UPDATED, post.getId()));
+    }
+
+    /**
+     * Derives the post's status from the delivery ledger of its current targets, stores it
+     * and returns it. Reading the ledger rather than one caller's outcome keeps concurrent
+     * publishers of the same post from settling it on a partial view.
+     *
+     * The status only moves out of PUBLISHING. A post archived, moved back to draft or
+     * settled by someone else in the meantime keeps its status, which is returned instead.
+     */
+    public PostStatus settle(Post post) {
+        Set<Long> targetIds = post.getTargets().stream().map(SocialAccount::getId).collect(Collectors.toSet());
+        List<DeliveryStatus> statuses = postDeliveryRepository.findStatesByPostId(post.getId()).stream()
+                .filter(delivery -> targetIds.contains(delivery.socialAccountId()))
+                .map(DeliveryState::status)
+                .toList();
+
+        PostStatus status;
+        if (statuses.size() == targetIds.size() && statuses.stream().allMatch(s -> s == DeliveryStatus.SUCCEEDED)) {
+            status = PostStatus.PUBLISHED;
+        } else if (statuses.size() < targetIds.size() || statuses.stream().anyMatch(s -> s != DeliveryStatus.SUCCEEDED && s != DeliveryStatus.DEAD_LETTERED)) {
+            status = PostStatus.PUBLISHING;
+        } else {
+            status = PostStatus.FAILED;
+        }
+        if (status == PostStatus.PUBLISHING) {
+            return status;
+        }
+
+        if (changeVersionService.updatePostsInWorkspace(post.getWorkspace().getId(),
+                () -> postRepository.transitionStatus(post.getId(), PostStatus.PUBLISHING, status)) == 0) {
+            PostStatus current = postRepository.findStatus(post.getId()).orElse(null);
+            post.setStatus(current);
+            return current;
+        }
+        if (status == PostStatus.FAILED) {
+            failedPostsCounter.increment();
+        }
+        post.setStatus(status);
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(post.getWorkspace().getId(), WorkspaceChangeEvent.POST_UPDATED, post.getId()));
+        return status;
+    }
+
+    @Scheduled(fixedDelayString = "${publishing.retry.poll-interval:PT10S}")
+    public void retryDueDeliveries() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> postIds = new LinkedHashSet<>(postDeliveryRepository.findPostIdsWithDueRetries(
+                now, now.minus(staleAfter), PageRequest.of(0, batchSize)));
+        // Posts whose last in-flight delivery finished after its publisher had already settled
+        postIds.addAll(postRepository.findPublishingWithAllDeliveriesSucceeded(PageRequest.of(0, batchSize)));
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        List<Future<?>> running = new ArrayList<>(postIds.size());
+        for (Long postId : postIds) {
+            running.add(retryExecutor.submit(() -> retry(postId)));
+        }
+        // Wait for this batch so the next poll does not pick up the same posts again
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Retry task failed", e);
+            }
+        }
+    }
+
+    private void retry(Long postId) {
+        // Empty if the post was deleted, or its workspace was and is being purged
+        Post post = postRepository.findPublishable(postId).orElse(null);
+        if (post == null) {
+            postDeliveryRepository.deleteByPostId(postId);
+            return;
+        }
+        if (post.getStatus() != PostStatus.PUBLISHING) {
+            // Archived or moved back to draft since it failed; its deliveries wait for the next publish
+            return;
+        }
+        retriedCounter.increment();
+        PublishResult result = publishingService.publishToTargets(post);
+        PostStatus status = settle(post);
+        if (status != PostStatus.PUBLISHED) {
+            logger.info("Retry of post {} left it {}: {} failed and {} deferred target(s)", postId, status,
+                    result.failures().size(), result.deferred().size());
+        }
+    }
+
+    /**
+     * Re-queues the given dead-lettered deliveries with a fresh attempt budget.
+     * Returns the number of deliveries re-queued.
+     */
+    public int replay(Collection<Long> deliveryIds) {
+        if (deliveryIds.isEmpty()) {
+            return 0;
+        }
+        int requeued = postDeliveryRepository.requeueDeadLetters(deliveryIds, LocalDateTime.now());
+        List<Long> postIds = postDeliveryRepository.findPostIdsByIdIn(deliveryIds);
+        changeVersionService.updatePosts(postIds,
+                () -> postRepository.transitionStatuses(postIds, PostStatus.FAILED, PostStatus.PUBLISHING));
+        return requeued;
+    }
+
+    /**
+     * Re-queues every dead-lettered delivery of a workspace.
+     */
+    public int replayWorkspace(Long workspaceId) {
+        int requeued = postDeliveryRepository.requeueDeadLettersInWorkspace(workspaceId, LocalDateTime.now());
+        changeVersionService.updatePostsInWorkspace(workspaceId,
+                () -> postRepository.transitionWorkspaceStatuses(workspaceId, PostStatus.FAILED, PostStatus.PUBLISHING));
+        return requeued;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryExecutor.shutdownNow();
+    }
+}
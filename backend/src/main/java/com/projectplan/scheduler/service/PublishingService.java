@@ -1,64 +1,296 @@
 package com.projectplan.scheduler.service;
 
+import com.projectplan.scheduler.dto.DeliveryState;
+import com.projectplan.scheduler.dto.PublishResult;
+import com.projectplan.scheduler.dto.PublishResult.TargetOutcome;
+import com.projectplan.scheduler.model.DeliveryStatus;
 import com.projectplan.scheduler.model.Post;
 import com.projectplan.scheduler.model.SocialAccount;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @Service
 public class PublishingService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final Logger logger = LoggerFactory.getLogger(PublishingService.class);
 
+    // Both providers answer with a JSON object; Discord's carries the created message's id
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {
+    };
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private DeliveryLedgerService deliveryLedgerService;
+
+    @Autowired
+    private ProviderRateLimiter rateLimiter;
+
+    @Autowired
+    private ProviderCircuitBreakers circuitBreakers;
+
+    private static final String AUTH_SERVICE_URL = "http://auth-app:8080";
+
+    // A 429 followed by a short Retry-After is waited out in-line this many times before deferring
+    private static final int MAX_SEND_TRIES = 3;
+
+    // One virtual thread per outbound call; targets are I/O bound, so there is nothing to pool.
+    private final ExecutorService fanOutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${publishing.fan-out.parallel:true}")
+    private boolean parallelFanOut;
+
+    @Value("${publishing.fan-out.deadline:PT20S}")
+    private Duration fanOutDeadline;
+
+    // Worst case of one call on the shared HTTP client: waiting for a pooled connection, connecting, reading
+    @Value("${http.client.connection-request-timeout:PT2S}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${http.client.connect-timeout:PT3S}")
+    private Duration connectTimeout;
+
+    @Value("${http.client.read-timeout:PT10S}")
+    private Duration readTimeout;
+
+    /**
+     * In-flight sends are never cancelled at the deadline (see publishToTargets), so the
+     * deadline only holds if the HTTP client gives up on a call first.
+     */
+    @PostConstruct
+    void checkDeadline() {
+        Duration callBound = connectionRequestTimeout.plus(connectTimeout).plus(readTimeout);
+        if (callBound.compareTo(fanOutDeadline) >= 0) {
+            throw new IllegalStateException("publishing.fan-out.deadline (" + fanOutDeadline + ") must be longer than one HTTP call "
+                    + "(http.client connection-request-timeout + connect-timeout + read-timeout = " + callBound + ")");
+        }
+    }
+
+    /**
+     * Publishes a post to every target and fails if any target failed.
+     * All targets are attempted even when one of them fails.
+     */
     public void publishPost(Post post) {
-        for (SocialAccount target : post.getTargets()) {
-            if ("discord".equalsIgnoreCase(target.getProvider())) {
-                publishToDiscord(target, post);
-            } else if ("linkedin".equalsIgnoreCase(target.getProvider())) {
-                publishToLinkedIn(target, post);
+        PublishResult result = publishToTargets(post);
+        if (!result.allSucceeded()) {
+            String errors = result.failures().stream()
+                    .map(TargetOutcome::error)
+                    .collect(Collectors.joining("; "));
+            throw new RuntimeException(errors);
+        }
+    }
+
+    /**
+     * Sends the post to all of its targets and returns one outcome per target.
+     * Targets the delivery ledger already records as SUCCEEDED are not contacted again,
+     * so retrying a partially failed publish only touches the targets that failed.
+     * In parallel mode every remaining target is contacted at once and the caller waits at
+     * most {@code publishing.fan-out.deadline}. Targets still in flight at the deadline are
+     * reported as not done but left running: interrupting a blocking call cannot take back a
+     * request the provider may already have received, and a send recorded as failed would be
+     * retried and could post twice. The call ends within the HTTP client's timeouts and writes
+     * its own outcome to the ledger, where the retry poll picks it up.
+     */
+    public PublishResult publishToTargets(Post post) {
+        List<SocialAccount> targets = new ArrayList<>(post.getTargets());
+        Map<Long, DeliveryState> ledger = deliveryLedgerService.ensureDeliveries(post.getId(), targets);
+
+        if (!parallelFanOut || targets.size() <= 1) {
+            return new PublishResult(targets.stream()
+                    .map(target -> publishToTarget(target, post, ledger.get(target.getId())))
+                    .toList());
+        }
+
+        List<Future<TargetOutcome>> futures = targets.stream()
+                .map(target -> fanOutExecutor.submit(() -> publishToTarget(target, post, ledger.get(target.getId()))))
+                .toList();
+        long deadline = System.nanoTime() + fanOutDeadline.toNanos();
+
+        List<TargetOutcome> outcomes = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            SocialAccount target = targets.get(i);
+            try {
+                outcomes.add(futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                outcomes.add(deferred(target, "Still sending after " + fanOutDeadline.toMillis() + " ms; the outcome is recorded when the call returns",
+                        fanOutDeadline.toMillis()));
+            } catch (ExecutionException e) {
+                outcomes.add(failure(target, e.getCause().getMessage(), 0));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                outcomes.add(failure(target, "Interrupted", 0));
+            }
+        }
+        return new PublishResult(outcomes);
+    }
+
+    private TargetOutcome publishToTarget(SocialAccount target, Post post, DeliveryState delivery) {
+        if (delivery.status() == DeliveryStatus.SUCCEEDED) {
+            return new TargetOutcome(target.getId(), target.getProvider(), target.getName(), true, false, delivery.providerMessageId(), null, 0);
+        }
+        int attempt = deliveryLedgerService.claim(delivery);
+        if (attempt == 0) {
+            return deferred(target, "Delivery to " + target.getName() + " is in progress or waiting for its next retry", 0);
+        }
+
+        long start = System.nanoTime();
+        try {
+            String providerMessageId = sendPaced(target, post);
+            deliveryLedgerService.recordSuccess(delivery, providerMessageId);
+            return new TargetOutcome(target.getId(), target.getProvider(), target.getName(), true, false, providerMessageId, null, elapsedMs(start));
+        } catch (DeferredPublishException e) {
+            // Not a failure of the post: try again once the provider is back or lets us
+            deliveryLedgerService.recordDeferred(delivery, e.getRetryAfter(), e.getMessage());
+            return deferred(target, e.getMessage() + "; retrying in " + e.getRetryAfter().toSeconds() + " s", elapsedMs(start));
+        } catch (Exception e) {
+            deliveryLedgerService.recordFailure(delivery, attempt, e.getMessage(), isRetryable(e));
+            return failure(target, e.getMessage(), elapsedMs(start));
+        }
+    }
+
+    /**
+     * Sends through the rate limiter and the circuit breakers. A 429 blocks the target's bucket for the Retry-After
+     * period; if that is short the send simply waits for its next permit, otherwise the
+     * limiter throws {@link RateLimitedException} and the delivery is deferred. While the
+     * provider or its host is down, calls are not made at all ({@link CircuitOpenException}).
+     */
+    private String sendPaced(SocialAccount target, Post post) {
+        for (int tries = 1; ; tries++) {
+            rateLimiter.acquire(target);
+            try {
+                if ("discord".equalsIgnoreCase(target.getProvider())) {
+                    return circuitBreakers.call("discord", remoteHost(target.getAccessToken()), () -> publishToDiscord(target, post));
+                } else if ("linkedin".equalsIgnoreCase(target.getProvider())) {
+                    return circuitBreakers.call("linkedin", remoteHost(AUTH_SERVICE_URL), () -> publishToLinkedIn(target, post));
+                }
+                throw new PermanentPublishException("Unsupported provider " + target.getProvider() + " for account " + target.getName());
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                Duration retryAfter = rateLimiter.onRateLimited(target, e);
+                if (tries >= MAX_SEND_TRIES) {
+                    throw new RateLimitedException(target.getProvider() + " rate limited " + target.getName(), retryAfter);
+                }
             }
         }
     }
 
-    private void publishToLinkedIn(SocialAccount account, Post post) {
-        String authServiceUrl = "http://auth-app:8080";
-        String url = authServiceUrl + "/linkedin/post";
+    /**
+     * Client errors other than 408/429 mean the request itself is wrong (bad token,
+     * deleted webhook) and will fail the same way on every retry.
+     */
+    private static boolean isRetryable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PermanentPublishException) {
+                return false;
+            }
+            if (cause instanceof HttpClientErrorException clientError) {
+                int status = clientError.getStatusCode().value();
+                return status == 408 || status == 429;
+            }
+        }
+        return true;
+    }
+
+    private static String remoteHost(String url) {
+        try {
+            String host = url != null ? URI.create(url).getHost() : null;
+            return host != null ? host : "unknown";
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+
+    private static TargetOutcome failure(SocialAccount target, String error, long durationMs) {
+        return new TargetOutcome(target.getId(), target.getProvider(), target.getName(), false, false, null, error, durationMs);
+    }
+
+    private static TargetOutcome deferred(SocialAccount target, String reason, long durationMs) {
+        return new TargetOutcome(target.getId(), target.getProvider(), target.getName(), false, true, null, reason, durationMs);
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
+
+    private String publishToLinkedIn(SocialAccount account, Post post) {
+        String url = AUTH_SERVICE_URL + "/linkedin/post";
 
         Map<String, String> payload = new HashMap<>();
         payload.put("accessToken", account.getAccessToken());
         payload.put("content", post.getContent());
 
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, payload, String.class);
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(payload), JSON_OBJECT);
+            rateLimiter.onResponse(account, response.getHeaders());
             if (!response.getStatusCode().is2xxSuccessful()) {
                 throw new RuntimeException("Failed to publish to LinkedIn for account " + account.getName() + ": " + response.getBody());
             }
-            System.out.println("Successfully published to LinkedIn for account: " + account.getName());
+            logger.info("Published post {} to LinkedIn account {}", post.getId(), account.getName());
+            return providerMessageId(response);
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Failed to publish to LinkedIn for account " + account.getName() + ": " + e.getMessage());
+            throw new RuntimeException("Failed to publish to LinkedIn for account " + account.getName() + ": " + e.getMessage(), e);
         }
     }
 
-    private void publishToDiscord(SocialAccount account, Post post) {
+    private String publishToDiscord(SocialAccount account, Post post) {
         String webhookUrl = account.getAccessToken(); // We store URL in accessToken field
         if (webhookUrl == null || webhookUrl.isEmpty()) {
-            System.err.println("Discord webhook URL is missing for account: " + account.getName());
-            return;
+            throw new PermanentPublishException("Discord webhook URL is missing for account: " + account.getName());
         }
 
         // Discord webhook expects a JSON payload with a "content" key
         Map<String, String> payload = new HashMap<>();
         payload.put("content", post.getContent());
 
+        // wait=true makes Discord return the created message, which carries its id
+        URI uri = UriComponentsBuilder.fromHttpUrl(webhookUrl).queryParam("wait", true).build(true).toUri();
         try {
-            restTemplate.postForEntity(webhookUrl, payload, String.class);
-            System.out.println("Successfully published to Discord channel: " + account.getName());
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(uri, HttpMethod.POST, new HttpEntity<>(payload), JSON_OBJECT);
+            rateLimiter.onResponse(account, response.getHeaders());
+            logger.info("Published post {} to Discord channel {}", post.getId(), account.getName());
+            return providerMessageId(response);
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw e;
         } catch (Exception e) {
-            System.err.println("Failed to publish to Discord for account " + account.getName() + ": " + e.getMessage());
+            throw new RuntimeException("Failed to publish to Discord for account " + account.getName() + ": " + e.getMessage(), e);
         }
     }
+
+    private static String providerMessageId(ResponseEntity<Map<String, Object>> response) {
+        Object id = response.getBody() != null ? response.getBody().get("id") : null;
+        return id != null ? id.toString() : null;
+    }
 }
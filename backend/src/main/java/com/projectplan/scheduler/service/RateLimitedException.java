@@ -0,0 +1,15 @@
+package com.projectplan.scheduler.service;
+
+import java.time.Duration;
+
+/**
+ * The provider (or our own limiter) will not accept this send for a while.
+ */
+public class RateLimitedException extends DeferredPublishException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RateLimitedException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+}
@@ -0,0 +1,179 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.model.Post;
+import com.projectplan.scheduler.model.PostStatus;
+import com.projectplan.scheduler.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires SCHEDULED posts at their scheduledAt.
+ *
+ * A poller looks {@code lookahead} ahead and arms a timer for every due post it finds,
+ * so posts go out on their scheduled second rather than on the next poll tick. When a
+ * timer fires the post is claimed with a conditional SCHEDULED -> PUBLISHING update;
+ * only the winner publishes, which keeps several backend instances (or a user who
+ * unscheduled the post in the meantime) from double-posting.
+ *
+ * A claim records its time. If the claiming instance dies before the post's first delivery
+ * is written, nothing else would ever move the post out of PUBLISHING, so a sweep puts
+ * claims older than {@code claim-stale-after} that still have no deliveries back to SCHEDULED.
+ */
+@Service
+public class ScheduledPublishDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledPublishDispatcher.class);
+
+    private final PostRepository postRepository;
+    private final PublishingService publishingService;
+    private final PublishRetryService publishRetryService;
+    private final ChangeVersionService changeVersionService;
+
+    private final Duration lookahead;
+    private final int batchSize;
+    private final Duration claimStaleAfter;
+
+    private final ScheduledExecutorService timer;
+    private final ExecutorService workers;
+
+    // postId -> scheduledAt the timer was armed for
+    private final Map<Long, LocalDateTime> armed = new ConcurrentHashMap<>();
+
+    private final Timer lagTimer;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    public ScheduledPublishDispatcher(PostRepository postRepository,
+                                      PublishingService publishingService,
+                                      PublishRetryService publishRetryService,
+                                      ChangeVersionService changeVersionService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${scheduler.dispatch.lookahead:PT30S}") Duration lookahead,
+                                      @Value("${scheduler.dispatch.batch-size:1000}") int batchSize,
+                                      @Value("${scheduler.dispatch.worker-threads:32}") int workerThreads,
+                                      @Value("${scheduler.dispatch.claim-stale-after:PT5M}") Duration claimStaleAfter) {
+        this.postRepository = postRepository;
+        this.publishingService = publishingService;
+        this.publishRetryService = publishRetryService;
+        this.changeVersionService = changeVersionService;
+        this.lookahead = lookahead;
+        this.batchSize = batchSize;
+        this.claimStaleAfter = claimStaleAfter;
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(namedThreads("publish-timer"));
+        this.workers = Executors.newFixedThreadPool(workerThreads, namedThreads("publish-worker"));
+
+        this.lagTimer = Timer.builder("scheduler.publish.lag")
+                .description("Delay between a post's scheduledAt and the moment it was published")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("scheduler.publish.dispatched")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("scheduler.publish.dispatched")
+                .tag("outcome", "incomplete")
+                .register(meterRegistry);
+        meterRegistry.gauge("scheduler.dispatch.armed", armed, Map::size);
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.dispatch.poll-interval:PT5S}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<PostRepository.DuePost> due = postRepository.findDue(
+                PostStatus.SCHEDULED, now.plus(lookahead), PageRequest.of(0, batchSize));
+
+        for (PostRepository.DuePost candidate : due) {
+            LocalDateTime previous = armed.putIfAbsent(candidate.getId(), candidate.getScheduledAt());
+            if (previous == null) {
+                arm(candidate.getId(), candidate.getScheduledAt(), now);
+            } else if (candidate.getScheduledAt().isBefore(previous)) {
+                // Moved earlier since it was armed; the stale timer loses the claim race harmlessly.
+                armed.put(candidate.getId(), candidate.getScheduledAt());
+                arm(candidate.getId(), candidate.getScheduledAt(), now);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.dispatch.claim-sweep-interval:PT1M}")
+    public void releaseAbandonedClaims() {
+        LocalDateTime claimedBefore = LocalDateTime.now().minus(claimStaleAfter);
+        List<Long> postIds = postRepository.findAbandonedClaims(claimedBefore, PageRequest.of(0, batchSize));
+        if (postIds.isEmpty()) {
+            return;
+        }
+        int released = changeVersionService.updatePosts(postIds,
+                () -> postRepository.releaseAbandonedClaims(postIds, claimedBefore));
+        if (released > 0) {
+            logger.warn("Put {} post(s) claimed before {} with no deliveries back to SCHEDULED", released, claimedBefore);
+        }
+    }
+
+    private void arm(Long postId, LocalDateTime scheduledAt, LocalDateTime now) {
+        long delayMs = Math.max(0, Duration.between(now, scheduledAt).toMillis());
+        timer.schedule(() -> workers.execute(() -> fire(postId)), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void fire(Long postId) {
+        try {
+            if (changeVersionService.updatePosts(List.of(postId), () -> postRepository.claimDue(postId, LocalDateTime.now())) == 0) {
+                // Unscheduled, rescheduled or taken by another instance; the next poll re-arms if still due.
+                return;
+            }
+            Post post = postRepository.findById(postId).orElse(null);
+            if (post == null) {
+                return;
+            }
+            publishingService.publishToTargets(post);
+            // Failed targets stay in the delivery ledger and are retried with backoff by PublishRetryService
+            if (publishRetryService.settle(post) == PostStatus.PUBLISHED) {
+                publishedCounter.increment();
+                if (post.getScheduledAt() != null) {
+                    lagTimer.record(Duration.between(post.getScheduledAt(), LocalDateTime.now()));
+                }
+            } else {
+                logger.warn("Scheduled publish of post {} did not reach every target; left to retries", postId);
+                failedCounter.increment();
+            }
+        } catch (Exception e) {
+            logger.error("Dispatcher error for post {}", postId, e);
+        } finally {
+            armed.remove(postId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdown();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
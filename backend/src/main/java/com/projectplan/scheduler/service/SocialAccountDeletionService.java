@@ -0,0 +1,155 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.model.SocialAccount;
+import com.projectplan.scheduler.repository.PostDeliveryRepository;
+import com.projectplan.scheduler.repository.PostRepository;
+import com.projectplan.scheduler.repository.SocialAccountRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes social accounts without loading the posts that target them.
+ *
+ * An account targeted by up to {@code social-accounts.delete.async-threshold} posts is
+ * deleted in the request with a handful of set-based statements: stamp the posts, drop the
+ * "PostTarget" rows, drop the delivery history, delete the account. A more widely used
+ * account is only marked deleted, which hides it from every query and every post's targets
+ * at once; a background job then detaches it in batches of
+ * {@code social-accounts.delete.batch-size}, each in its own short transaction, and removes
+ * the row last. Every batch works on whatever is left, so the job can stop anywhere and
+ * resume: the recovery poll picks up any hidden account still present after the pickup delay.
+ */
+@Service
+public class SocialAccountDeletionService {
+
+    public enum Outcome {
+        NOT_FOUND,
+        DELETED,
+        // Hidden, and being detached from its posts in the background
+        DELETING
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SocialAccountDeletionService.class);
+
+    private final SocialAccountRepository socialAccountRepository;
+    private final PostRepository postRepository;
+    private final PostDeliveryRepository postDeliveryRepository;
+    private final SocialAccountQueryService socialAccountQueryService;
+    private final ChangeVersionService changeVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BatchedWorker worker;
+
+    private final long asyncThreshold;
+    private final Pageable batch;
+    private final Duration pickupDelay;
+
+    public SocialAccountDeletionService(SocialAccountRepository socialAccountRepository,
+                                        PostRepository postRepository,
+                                        PostDeliveryRepository postDeliveryRepository,
+                                        SocialAccountQueryService socialAccountQueryService,
+                                        ChangeVersionService changeVersionService,
+                                        ApplicationEventPublisher eventPublisher,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${social-accounts.delete.async-threshold:10000}") long asyncThreshold,
+                                        @Value("${social-accounts.delete.batch-size:1000}") int batchSize,
+                                        @Value("${social-accounts.delete.pickup-delay:PT1M}") Duration pickupDelay) {
+        this.socialAccountRepository = socialAccountRepository;
+        this.postRepository = postRepository;
+        this.postDeliveryRepository = postDeliveryRepository;
+        this.socialAccountQueryService = socialAccountQueryService;
+        this.changeVersionService = changeVersionService;
+        this.eventPublisher = eventPublisher;
+        this.worker = new BatchedWorker("social-account-purge", transactionManager);
+        this.asyncThreshold = asyncThreshold;
+        this.batch = PageRequest.of(0, batchSize);
+        this.pickupDelay = pickupDelay;
+    }
+
+    @Transactional
+    public Outcome delete(Long id) {
+        SocialAccount account = socialAccountRepository.findById(id).orElse(null);
+        if (account == null) {
+            return Outcome.NOT_FOUND;
+        }
+        Long workspaceId = account.getWorkspace().getId();
+
+        Outcome outcome;
+        if (postRepository.countTargetsOfAccountUpTo(id, asyncThreshold + 1) <= asyncThreshold) {
+            changeVersionService.updatePostsInWorkspace(workspaceId, () -> postRepository.stampPostsTargeting(id));
+            postRepository.deleteTargetsOfAccounts(List.of(id));
+            postDeliveryRepository.deleteBySocialAccountId(id);
+            socialAccountRepository.delete(account);
+            outcome = Outcome.DELETED;
+        } else {
+            // The row is removed with native SQL at the end, which writes no tombstone
+            changeVersionService.tombstone(account);
+            socialAccountRepository.markDeleted(id, LocalDateTime.now());
+            eventPublisher.publishEvent(new SocialAccountDeletedEvent(id));
+            outcome = Outcome.DELETING;
+        }
+
+        socialAccountQueryService.evictWorkspace(workspaceId);
+        eventPublisher.publishEvent(new WorkspaceChangeEvent(workspaceId, WorkspaceChangeEvent.CHANNEL_DELETED, id));
+        return outcome;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSocialAccountDeleted(SocialAccountDeletedEvent event) {
+        worker.submit(event.socialAccountId(), this::purge);
+    }
+
+    @Scheduled(fixedDelayString = "${social-accounts.delete.poll-interval:PT30S}")
+    public void recover() {
+        LocalDateTime before = LocalDateTime.now().minus(pickupDelay);
+        for (Long id : socialAccountRepository.findDeletedBefore(before, PageRequest.of(0, 100))) {
+            worker.submit(id, this::purge);
+        }
+    }
+
+    private void purge(Long id) {
+        long started = System.nanoTime();
+        try {
+            int posts = worker.drain(() -> detachPosts(id));
+            int deliveries = worker.drain(() -> deleteDeliveries(id));
+            worker.inTransaction(() -> socialAccountRepository.deletePurged(id));
+            logger.info("Deleted social account {} in {} ms: detached from {} post(s), {} delivery record(s) dropped",
+                    id, Duration.ofNanos(System.nanoTime() - started).toMillis(), posts, deliveries);
+        } catch (Exception e) {
+            logger.error("Deletion of social account {} failed; it will be resumed", id, e);
+        }
+    }
+
+    private int detachPosts(Long id) {
+        List<Long> postIds = postRepository.findPostIdsTargetingAccount(id, batch);
+        if (postIds.isEmpty()) {
+            return 0;
+        }
+        changeVersionService.updatePosts(postIds, () -> postRepository.stampChangeVersions(postIds));
+        postRepository.deleteTargetsOfAccount(id, postIds);
+        return postIds.size();
+    }
+
+    private int deleteDeliveries(Long id) {
+        List<Long> ids = postDeliveryRepository.findIdsBySocialAccountId(id, batch);
+        return ids.isEmpty() ? 0 : postDeliveryRepository.deleteByIds(ids);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+}
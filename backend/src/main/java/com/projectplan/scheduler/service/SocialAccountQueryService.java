@@ -0,0 +1,67 @@
+package com.projectplan.scheduler.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.projectplan.scheduler.model.SocialAccount;
+import com.projectplan.scheduler.model.SocialAccountStatus;
+import com.projectplan.scheduler.repository.SocialAccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-through cache of a workspace's social accounts, optionally filtered by status, as
+ * listed by the channel picker. Every write to an account must call {@link #evictWorkspace}.
+ *
+ * Eviction is deferred until the writing transaction commits, so a concurrent read cannot
+ * put the old rows back.
+ */
+@Service
+public class SocialAccountQueryService {
+
+    private record Key(Long workspaceId, SocialAccountStatus status) {
+    }
+
+    private final SocialAccountRepository socialAccountRepository;
+    private final Cache<Key, List<SocialAccount>> accounts;
+
+    public SocialAccountQueryService(SocialAccountRepository socialAccountRepository,
+                                     @Value("${social-accounts.cache.ttl:PT5M}") Duration ttl,
+                                     @Value("${social-accounts.cache.max-size:10000}") long maxSize) {
+        this.socialAccountRepository = socialAccountRepository;
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param status null for accounts of any status
+     */
+    public List<SocialAccount> findByWorkspace(Long workspaceId, SocialAccountStatus status) {
+        return accounts.get(new Key(workspaceId, status), key -> key.status() == null
+                ? List.copyOf(socialAccountRepository.findAllByWorkspaceId(workspaceId))
+                : List.copyOf(socialAccountRepository.findAllByWorkspaceIdAndStatus(workspaceId, status)));
+    }
+
+    public void evictWorkspace(Long workspaceId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(workspaceId);
+                }
+            });
+        } else {
+            evictNow(workspaceId);
+        }
+    }
+
+    private void evictNow(Long workspaceId) {
+        accounts.asMap().keySet().removeIf(key -> key.workspaceId().equals(workspaceId));
+    }
+}
@@ -0,0 +1,92 @@
+package com.projectplan.scheduler.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical arrival
+ * time" per bucket, advanced with CAS. {@code permits} requests may burst at once and
+ * the bucket then refills at {@code permits / period}.
+ *
+ * A provider can also block the bucket outright (429 / exhausted rate-limit headers);
+ * no reservation is granted before that time.
+ */
+public final class TokenBucket {
+
+    private final long periodNanos;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+    private final AtomicLong blockedUntil;
+
+    /**
+     * Creates a full, unblocked bucket. Both times start relative to {@code nowNanos} rather
+     * than at a sentinel, so arithmetic on them cannot overflow.
+     */
+    public TokenBucket(int permits, Duration period, long nowNanos) {
+        this.periodNanos = period.toNanos();
+        this.emissionIntervalNanos = Math.max(1, periodNanos / permits);
+        this.burstToleranceNanos = emissionIntervalNanos * (permits - 1L);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+        this.blockedUntil = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Reserves one permit if it becomes available within {@code maxWaitNanos}.
+     * Returns the nanoseconds the caller must wait before sending, or -1 without
+     * reserving anything if the wait would be longer than allowed.
+     */
+    public long reserve(long nowNanos, long maxWaitNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long sendAt = sendAt(tat, nowNanos);
+            long wait = sendAt - nowNanos;
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(tat, Math.max(tat, sendAt) + emissionIntervalNanos)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Nanoseconds until a permit could be reserved without waiting.
+     */
+    public long nanosUntilAvailable(long nowNanos) {
+        return sendAt(theoreticalArrival.get(), nowNanos) - nowNanos;
+    }
+
+    // The earliest time a permit is free: once the bucket has refilled far enough and the
+    // block, if any, has ended. A block only delays sends; the bucket keeps refilling meanwhile.
+    private long sendAt(long tat, long nowNanos) {
+        return Math.max(Math.max(nowNanos, blockedUntil.get()), tat - burstToleranceNanos);
+    }
+
+    public long periodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Returns a permit taken with {@link #reserve} that was not used, e.g. because another
+     * bucket the send also needed refused it.
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+
+    /**
+     * Nanoseconds after which, with no further reservations, the bucket is full and unblocked
+     * again, so forgetting it loses nothing.
+     */
+    public long nanosUntilIdle(long nowNanos) {
+        return Math.max(0, Math.max(theoreticalArrival.get(), blockedUntil.get()) - nowNanos);
+    }
+
+    /**
+     * Blocks the bucket until the given time, e.g. from a Retry-After header.
+     */
+    public void blockUntil(long untilNanos) {
+        blockedUntil.accumulateAndGet(untilNanos, Math::max);
+    }
+}
@@ -0,0 +1,109 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.dto.UserDto;
+import com.projectplan.scheduler.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Typeahead search over users for the invite dialog. Results are capped, and prefix matches
+ * on name or email come first, shortest first. Terms of three or more characters are then
+ * topped up with substring matches, ranked by how early the term occurs.
+ *
+ * Both lookups stay index-backed on Postgres: a lower(...) text_pattern_ops b-tree per column
+ * for prefixes, and a pg_trgm GIN index per column for substrings, added by the V3 and V4
+ * migrations. On another database the same queries still work, the substring lookup just
+ * scans.
+ */
+@Service
+public class UserSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchService.class);
+
+    public static final int MIN_QUERY_LENGTH = 2;
+    public static final int MAX_RESULTS = 20;
+    private static final int MIN_SUBSTRING_LENGTH = 3;
+
+    private static final List<String> SEARCH_INDEXES = List.of(
+            "idx_user_name_prefix", "idx_user_email_prefix", "idx_user_name_trgm", "idx_user_email_trgm");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DatabaseSupport databaseSupport;
+
+    public List<UserDto> search(String query, int limit) {
+        String term = query.trim().toLowerCase(Locale.ROOT);
+        if (term.length() < MIN_QUERY_LENGTH) {
+            return List.of();
+        }
+        int max = Math.min(Math.max(limit, 1), MAX_RESULTS);
+        String escaped = DatabaseSupport.escapeLike(term);
+
+        List<UserDto> results = new ArrayList<>(userRepository.searchByPrefix(escaped, PageRequest.of(0, max)));
+        if (results.size() == max || term.length() < MIN_SUBSTRING_LENGTH) {
+            return results;
+        }
+
+        // Over-fetch, since the prefix matches found above are among the substring matches
+        Set<String> seen = new HashSet<>();
+        results.forEach(user -> seen.add(user.getId()));
+        userRepository.searchByContains(escaped, PageRequest.of(0, max * 2)).stream()
+                .filter(user -> seen.add(user.getId()))
+                .sorted(Comparator.comparingInt((UserDto user) -> matchPosition(user, term))
+                        .thenComparingInt(user -> label(user).length()))
+                .limit(max - results.size())
+                .forEach(results::add);
+        return results;
+    }
+
+    /**
+     * Reports search indexes the migrations have not left usable. Results do not change
+     * without them, the lookups just scan.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIndexes() {
+        if (!databaseSupport.isPostgres()) {
+            return;
+        }
+        for (String index : SEARCH_INDEXES) {
+            DatabaseSupport.IndexState state = databaseSupport.indexState(index);
+            if (state == DatabaseSupport.IndexState.INVALID) {
+                logger.warn("Index {} is invalid after a failed build, user search scans until it is rebuilt with REINDEX INDEX CONCURRENTLY {}",
+                        index, index);
+            } else if (state == DatabaseSupport.IndexState.MISSING) {
+                logger.warn("Index {} is missing, user search scans until the migrations have run", index);
+            }
+        }
+    }
+
+    private static int matchPosition(UserDto user, String term) {
+        int best = Integer.MAX_VALUE;
+        for (String value : new String[] {user.getName(), user.getEmail()}) {
+            if (value != null) {
+                int position = value.toLowerCase(Locale.ROOT).indexOf(term);
+                if (position >= 0) {
+                    best = Math.min(best, position);
+                }
+            }
+        }
+        return best;
+    }
+
+    private static String label(UserDto user) {
+        return user.getName() != null ? user.getName() : String.valueOf(user.getEmail());
+    }
+}
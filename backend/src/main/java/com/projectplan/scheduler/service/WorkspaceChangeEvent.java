@@ -0,0 +1,21 @@
+package com.projectplan.scheduler.service;
+
+/**
+ * Something in a workspace changed that open clients should see. Streamed to the workspace's
+ * subscribers by {@link WorkspaceEventHub} once the publishing transaction has committed.
+ *
+ * {@code id} is the post for post and comment events and the social account for channel
+ * events; it is null when several posts changed at once.
+ */
+public record WorkspaceChangeEvent(Long workspaceId, String type, Long id) {
+
+    public static final String POST_CREATED = "post.created";
+    public static final String POST_UPDATED = "post.updated";
+    public static final String POST_DELETED = "post.deleted";
+    public static final String POSTS_UPDATED = "posts.updated";
+    public static final String COMMENT_CREATED = "comment.created";
+    public static final String CHANNEL_CHANGED = "channel.changed";
+    public static final String CHANNEL_DELETED = "channel.deleted";
+    public static final String MEMBERSHIP_CHANGED = "membership.changed";
+    public static final String WORKSPACE_RENAMED = "workspace.renamed";
+}
@@ -0,0 +1,237 @@
+package com.projectplan.scheduler.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events fan-out of {@link WorkspaceChangeEvent}s to the clients watching a
+ * workspace, so they can refresh on change instead of polling.
+ *
+ * Each event is serialised once and the same frame is handed to every subscriber. Every
+ * subscriber has a small bounded queue drained by its own virtual thread, so a slow client
+ * only ever delays itself. When a client falls so far behind that its queue overflows, the
+ * backlog is dropped and replaced by a single "resync" event telling it to reload. Idle
+ * streams get a heartbeat comment so proxies keep them open and dead clients are noticed.
+ *
+ * Events reach the hub through {@link WorkspaceEventRelay}, which carries them between
+ * instances. Streams are only opened to members of the workspace; after every membership
+ * change the subscribers' memberships are checked again, and the streams of anyone no
+ * longer a member are closed.
+ */
+@Service
+public class WorkspaceEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceEventHub.class);
+
+    public static final String RESYNC = "resync";
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+    private static final Set<DataWithMediaType> RESYNC_FRAME = SseEmitter.event().name(RESYNC).data("{}").build();
+
+    /** Thrown by {@link #subscribe} when the subscriber limit is reached. */
+    public static class TooManySubscribersException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public TooManySubscribersException() {
+            super("Too many open event streams");
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final WorkspaceEventRelay relay;
+    private final MembershipService membershipService;
+    private final Duration streamTimeout;
+    private final int queueCapacity;
+    private final int maxSubscribers;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public WorkspaceEventHub(ObjectMapper objectMapper,
+                             WorkspaceEventRelay relay,
+                             MembershipService membershipService,
+                             MeterRegistry meterRegistry,
+                             @Value("${events.stream-timeout:PT30M}") Duration streamTimeout,
+                             @Value("${events.queue-capacity:64}") int queueCapacity,
+                             @Value("${events.max-subscribers:10000}") int maxSubscribers) {
+        this.objectMapper = objectMapper;
+        this.relay = relay;
+        this.membershipService = membershipService;
+        this.streamTimeout = streamTimeout;
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        meterRegistry.gauge("events.subscribers", subscriberCount);
+    }
+
+    @PostConstruct
+    public void start() {
+        relay.start(this::deliver, this::resyncAll);
+    }
+
+    /**
+     * The caller must have checked that the user is a member of the workspace.
+     */
+    public SseEmitter subscribe(Long workspaceId, String userId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManySubscribersException();
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(workspaceId, userId, emitter);
+        subscribers.computeIfAbsent(workspaceId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(subscriber));
+        // Flushes the response headers, so the client knows it is connected
+        subscriber.offer(HEARTBEAT);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkspaceChange(WorkspaceChangeEvent event) {
+        relay.publish(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        relay.publish(new WorkspaceChangeEvent(event.workspaceId(), WorkspaceChangeEvent.MEMBERSHIP_CHANGED, null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkspaceRenamed(WorkspaceRenamedEvent event) {
+        relay.publish(new WorkspaceChangeEvent(event.workspaceId(), WorkspaceChangeEvent.WORKSPACE_RENAMED, null));
+    }
+
+    @Scheduled(fixedDelayString = "${events.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.offer(HEARTBEAT)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private void deliver(WorkspaceChangeEvent event) {
+        Set<Subscriber> watching = subscribers.get(event.workspaceId());
+        if (watching == null || watching.isEmpty()) {
+            return;
+        }
+        if (WorkspaceChangeEvent.MEMBERSHIP_CHANGED.equals(event.type())) {
+            // Reads the database, so it runs off the thread that delivers events
+            senders.execute(() -> closeNonMembers(event.workspaceId()));
+        }
+        Set<DataWithMediaType> frame;
+        try {
+            frame = SseEmitter.event()
+                    .name(event.type())
+                    .data(objectMapper.writeValueAsString(event), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialise {}", event, e);
+            return;
+        }
+        watching.forEach(subscriber -> subscriber.offer(frame));
+    }
+
+    private void closeNonMembers(Long workspaceId) {
+        Set<Subscriber> watching = subscribers.getOrDefault(workspaceId, Set.of());
+        Map<String, Boolean> member = new HashMap<>();
+        for (Subscriber subscriber : watching) {
+            if (!member.computeIfAbsent(subscriber.userId, userId -> membershipService.isMember(userId, workspaceId))) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void resyncAll() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.offer(RESYNC_FRAME)));
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(subscriber.workspaceId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private final class Subscriber {
+
+        private final Long workspaceId;
+        private final String userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(Long workspaceId, String userId, SseEmitter emitter) {
+            this.workspaceId = workspaceId;
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                // Too far behind to catch up event by event: drop the backlog, ask for a reload
+                queue.clear();
+                queue.offer(RESYNC_FRAME);
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> frame;
+                while (!closed.get() && (frame = queue.poll()) != null) {
+                    emitter.send(frame);
+                }
+            } catch (Exception e) {
+                // The client went away; completing the emitter also removes the subscriber
+                remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event may have arrived after the last poll but before draining was cleared
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+}
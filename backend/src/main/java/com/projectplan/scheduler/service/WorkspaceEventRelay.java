@@ -0,0 +1,161 @@
+package com.projectplan.scheduler.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link WorkspaceChangeEvent}s to every instance, so that a client streaming from
+ * one instance hears about changes committed on another.
+ *
+ * On Postgres each event is sent with pg_notify on the workspace_events channel, and every
+ * instance, the sender included, LISTENs on one dedicated connection and hands what arrives
+ * to its {@link WorkspaceEventHub}. Notifications are only delivered to sessions listening
+ * at the time, so after the listening connection is lost and reopened the hub is told to
+ * have its clients resync. On any other database events stay within the instance.
+ */
+@Component
+public class WorkspaceEventRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceEventRelay.class);
+
+    private static final String CHANNEL = "workspace_events";
+    private static final int POLL_MILLIS = 10_000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final DatabaseSupport databaseSupport;
+    private final Duration reconnectDelay;
+
+    // Sends in commit order, and on a connection of its own rather than the committing thread's
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor();
+
+    private volatile Consumer<WorkspaceChangeEvent> consumer;
+    private volatile Runnable onGap;
+    private volatile boolean shared;
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public WorkspaceEventRelay(DataSource dataSource,
+                               JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               DatabaseSupport databaseSupport,
+                               @Value("${events.relay.reconnect-delay:PT5S}") Duration reconnectDelay) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.databaseSupport = databaseSupport;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    /**
+     * @param consumer receives every event published by any instance
+     * @param onGap    called when events may have been missed
+     */
+    public void start(Consumer<WorkspaceChangeEvent> consumer, Runnable onGap) {
+        this.consumer = consumer;
+        this.onGap = onGap;
+        this.shared = databaseSupport.isPostgres();
+        if (shared) {
+            listener = Thread.ofPlatform().daemon().name("workspace-event-listener").start(this::listen);
+        } else {
+            logger.info("Workspace events are only streamed to clients of the instance that made the change");
+        }
+    }
+
+    public void publish(WorkspaceChangeEvent event) {
+        if (!shared) {
+            consumer.accept(event);
+            return;
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialise {}", event, e);
+            return;
+        }
+        notifier.execute(() -> {
+            try {
+                jdbcTemplate.query("select pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+            } catch (DataAccessException e) {
+                // Better that this instance's clients see it than nobody
+                logger.warn("Could not relay {}, delivering it locally only: {}", event, e.getMessage());
+                consumer.accept(event);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        notifier.shutdown();
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    logger.info("Listening for workspace events again");
+                    onGap.run();
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Lost the workspace event connection, reconnecting in {}: {}", reconnectDelay, e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        try {
+            consumer.accept(objectMapper.readValue(payload, WorkspaceChangeEvent.class));
+        } catch (IOException e) {
+            logger.warn("Ignoring malformed workspace event {}: {}", payload, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Could not deliver workspace event {}", payload, e);
+        }
+    }
+}
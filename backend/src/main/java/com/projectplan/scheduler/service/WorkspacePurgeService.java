@@ -0,0 +1,241 @@
+package com.projectplan.scheduler.service;
+
+import com.projectplan.scheduler.model.WorkspaceDeletion;
+import com.projectplan.scheduler.model.WorkspaceDeletionStatus;
+import com.projectplan.scheduler.repository.CommentRepository;
+import com.projectplan.scheduler.repository.PostDeliveryRepository;
+import com.projectplan.scheduler.repository.PostRepository;
+import com.projectplan.scheduler.repository.PublishJobRepository;
+import com.projectplan.scheduler.repository.SocialAccountRepository;
+import com.projectplan.scheduler.repository.TombstoneRepository;
+import com.projectplan.scheduler.repository.UserWorkspaceRepository;
+import com.projectplan.scheduler.repository.WorkspaceDeletionRepository;
+import com.projectplan.scheduler.repository.WorkspaceRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Deletes workspaces in two steps. The request only marks the workspace deleted, which
+ * hides it from every query at once; a background purge then removes its comments, posts
+ * (with their targets, deliveries and publish jobs), channels, memberships and tombstones.
+ *
+ * The purge works in set-based batches of at most {@code workspaces.purge.batch-size} rows,
+ * each in its own short transaction, so a large workspace never holds locks for long. Every
+ * batch deletes whatever is left, so a purge can stop anywhere and resume. Progress is kept
+ * in the WorkspaceDeletion row. Like publish jobs, purges are persisted before they run: the
+ * recovery poll picks up any that missed the worker (restart, failure) or whose runner died.
+ */
+@Service
+public class WorkspacePurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkspacePurgeService.class);
+
+    private final WorkspaceRepository workspaceRepository;
+    private final WorkspaceDeletionRepository workspaceDeletionRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final PostDeliveryRepository postDeliveryRepository;
+    private final PublishJobRepository publishJobRepository;
+    private final SocialAccountRepository socialAccountRepository;
+    private final UserWorkspaceRepository userWorkspaceRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final SocialAccountQueryService socialAccountQueryService;
+    private final ChangeVersionService changeVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BatchedWorker worker;
+
+    private final Pageable batch;
+    private final Duration pickupDelay;
+    private final Duration staleAfter;
+
+    public WorkspacePurgeService(WorkspaceRepository workspaceRepository,
+                                 WorkspaceDeletionRepository workspaceDeletionRepository,
+                                 PostRepository postRepository,
+                                 CommentRepository commentRepository,
+                                 PostDeliveryRepository postDeliveryRepository,
+                                 PublishJobRepository publishJobRepository,
+                                 SocialAccountRepository socialAccountRepository,
+                                 UserWorkspaceRepository userWorkspaceRepository,
+                                 TombstoneRepository tombstoneRepository,
+                                 SocialAccountQueryService socialAccountQueryService,
+                                 ChangeVersionService changeVersionService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${workspaces.purge.batch-size:500}") int batchSize,
+                                 @Value("${workspaces.purge.pickup-delay:PT30S}") Duration pickupDelay,
+                                 @Value("${workspaces.purge.stale-after:PT5M}") Duration staleAfter) {
+        this.workspaceRepository = workspaceRepository;
+        this.workspaceDeletionRepository = workspaceDeletionRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.postDeliveryRepository = postDeliveryRepository;
+        this.publishJobRepository = publishJobRepository;
+        this.socialAccountRepository = socialAccountRepository;
+        this.userWorkspaceRepository = userWorkspaceRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.socialAccountQueryService = socialAccountQueryService;
+        this.changeVersionService = changeVersionService;
+        this.eventPublisher = eventPublisher;
+        this.worker = new BatchedWorker("workspace-purge", transactionManager);
+        this.batch = PageRequest.of(0, batchSize);
+        this.pickupDelay = pickupDelay;
+        this.staleAfter = staleAfter;
+    }
+
+    /**
+     * Marks the workspace deleted and queues its purge, which starts once this transaction
+     * commits. Empty if the workspace does not exist or is already deleted.
+     */
+    @Transactional
+    public Optional<WorkspaceDeletion> delete(Long workspaceId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (workspaceRepository.markDeleted(workspaceId, now) == 0) {
+            return Optional.empty();
+        }
+        changeVersionService.deletingWorkspace(workspaceId);
+
+        WorkspaceDeletion deletion = new WorkspaceDeletion();
+        deletion.setWorkspaceId(workspaceId);
+        deletion.setStatus(WorkspaceDeletionStatus.QUEUED);
+        deletion.setRequestedAt(now);
+        deletion.setUpdatedAt(now);
+        WorkspaceDeletion saved = workspaceDeletionRepository.save(deletion);
+
+        socialAccountQueryService.evictWorkspace(workspaceId);
+        eventPublisher.publishEvent(MembershipChangedEvent.allMembers(workspaceId));
+        eventPublisher.publishEvent(new WorkspaceDeletedEvent(workspaceId));
+        return Optional.of(saved);
+    }
+
+    public Optional<WorkspaceDeletion> getDeletion(Long workspaceId) {
+        return workspaceDeletionRepository.findById(workspaceId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkspaceDeleted(WorkspaceDeletedEvent event) {
+        worker.submit(event.workspaceId(), this::run);
+    }
+
+    @Scheduled(fixedDelayString = "${workspaces.purge.poll-interval:PT30S}")
+    public void recover() {
+        LocalDateTime now = LocalDateTime.now();
+        int requeued = workspaceDeletionRepository.requeueStale(now.minus(staleAfter));
+        if (requeued > 0) {
+            logger.warn("Re-queued {} workspace purge(s) abandoned while running", requeued);
+        }
+        for (Long workspaceId : workspaceDeletionRepository.findQueuedBefore(now.minus(pickupDelay), PageRequest.of(0, 100))) {
+            worker.submit(workspaceId, this::run);
+        }
+    }
+
+    private void run(Long workspaceId) {
+        if (workspaceDeletionRepository.claim(workspaceId, LocalDateTime.now()) == 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            workspaceDeletionRepository.setRemaining(workspaceId,
+                    postRepository.countByWorkspaceId(workspaceId),
+                    commentRepository.countByWorkspaceId(workspaceId),
+                    socialAccountRepository.countByWorkspaceId(workspaceId),
+                    userWorkspaceRepository.countByWorkspaceId(workspaceId));
+
+            // Children before parents: comments and post targets reference posts, post targets reference channels
+            worker.drain(() -> purgeComments(workspaceId));
+            worker.drain(() -> purgePosts(workspaceId));
+            worker.drain(() -> purgeChannels(workspaceId));
+            worker.drain(() -> purgeMembers(workspaceId));
+            worker.drain(() -> purgeTombstones(workspaceId));
+            worker.inTransaction(() -> {
+                workspaceRepository.deletePurged(workspaceId);
+                workspaceDeletionRepository.complete(workspaceId, LocalDateTime.now());
+            });
+            // Drops any channel list cached while the purge ran
+            socialAccountQueryService.evictWorkspace(workspaceId);
+
+            WorkspaceDeletion deletion = workspaceDeletionRepository.findById(workspaceId).orElseThrow();
+            logger.info("Purged workspace {} in {} ms: {} post(s), {} comment(s), {} channel(s), {} member(s)",
+                    workspaceId, Duration.ofNanos(System.nanoTime() - started).toMillis(), deletion.getDeletedPosts(),
+                    deletion.getDeletedComments(), deletion.getDeletedChannels(), deletion.getDeletedMembers());
+        } catch (Exception e) {
+            logger.error("Purge of workspace {} failed; it will be resumed", workspaceId, e);
+            workspaceDeletionRepository.fail(workspaceId, e.getMessage(), LocalDateTime.now());
+        }
+    }
+
+    private int purgeComments(Long workspaceId) {
+        List<String> ids = commentRepository.findIdsByWorkspaceId(workspaceId, batch);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int comments = commentRepository.deleteByIds(ids);
+        workspaceDeletionRepository.addProgress(workspaceId, 0, comments, 0, 0, LocalDateTime.now());
+        return ids.size();
+    }
+
+    private int purgePosts(Long workspaceId) {
+        List<Long> ids = postRepository.findIdsByWorkspaceId(workspaceId, batch);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        postDeliveryRepository.deleteByPostIds(ids);
+        publishJobRepository.deleteByPostIds(ids);
+        // Comments added to these posts after the comment pass
+        int comments = commentRepository.deleteByPostIds(ids);
+        int posts = postRepository.deleteByIds(ids);
+        workspaceDeletionRepository.addProgress(workspaceId, posts, comments, 0, 0, LocalDateTime.now());
+        return ids.size();
+    }
+
+    private int purgeChannels(Long workspaceId) {
+        List<Long> ids = socialAccountRepository.findIdsByWorkspaceId(workspaceId, batch);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        postRepository.deleteTargetsOfAccounts(ids);
+        postDeliveryRepository.deleteBySocialAccountIds(ids);
+        int channels = socialAccountRepository.deleteByIds(ids);
+        workspaceDeletionRepository.addProgress(workspaceId, 0, 0, channels, 0, LocalDateTime.now());
+        return ids.size();
+    }
+
+    private int purgeMembers(Long workspaceId) {
+        List<Long> ids = userWorkspaceRepository.findIdsByWorkspaceId(workspaceId, batch);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int members = userWorkspaceRepository.deleteByIds(ids);
+        workspaceDeletionRepository.addProgress(workspaceId, 0, 0, 0, members, LocalDateTime.now());
+        return ids.size();
+    }
+
+    private int purgeTombstones(Long workspaceId) {
+        List<Long> ids = tombstoneRepository.findIdsByWorkspaceId(workspaceId, batch);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        tombstoneRepository.deleteByIds(ids);
+        workspaceDeletionRepository.addProgress(workspaceId, 0, 0, 0, 0, LocalDateTime.now());
+        return ids.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+}
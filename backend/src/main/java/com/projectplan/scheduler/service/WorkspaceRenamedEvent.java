@@ -0,0 +1,4 @@
+package com.projectplan.scheduler.service;
+
+public record WorkspaceRenamedEvent(Long workspaceId) {
+}
@@ -0,0 +1,156 @@
+package com.projectplan.scheduler.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.projectplan.scheduler.dto.WorkspaceSummary;
+import com.projectplan.scheduler.model.User;
+import com.projectplan.scheduler.model.UserRole;
+import com.projectplan.scheduler.model.UserWorkspace;
+import com.projectplan.scheduler.model.Workspace;
+import com.projectplan.scheduler.repository.UserRepository;
+import com.projectplan.scheduler.repository.UserWorkspaceRepository;
+import com.projectplan.scheduler.repository.WorkspaceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Backs GET /api/workspaces, which every page load calls. The common case is two cache hits:
+ * the profile the client sends matches what was last synced, and the user's workspace
+ * summaries are cached. The user row is only written when the profile changed, and the
+ * default workspace is only created when the user has none.
+ *
+ * Summaries are evicted on {@link MembershipChangedEvent} (for the user concerned and for
+ * everyone in the workspace, whose member count changed) and on {@link WorkspaceRenamedEvent}.
+ * Each cached list carries an ETag computed when it was loaded, so revalidating costs no
+ * more than a cache hit.
+ */
+@Service
+public class WorkspaceSummaryService {
+
+    private static final String DEFAULT_WORKSPACE_NAME = "My First Workspace";
+
+    private record Profile(String name, String email, String image) {
+    }
+
+    public record Summaries(List<WorkspaceSummary> workspaces, String etag) {
+
+        static Summaries of(List<WorkspaceSummary> workspaces) {
+            String content = workspaces.stream()
+                    .map(w -> w.id() + "\u001F" + w.name() + "\u001F" + w.role() + "\u001F" + w.memberCount())
+                    .collect(Collectors.joining("\n"));
+            return new Summaries(workspaces, ETags.ofContent(content));
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final WorkspaceRepository workspaceRepository;
+    private final UserWorkspaceRepository userWorkspaceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, Summaries> summaries;
+    private final Cache<String, Profile> syncedProfiles;
+
+    public WorkspaceSummaryService(UserRepository userRepository,
+                                   WorkspaceRepository workspaceRepository,
+                                   UserWorkspaceRepository userWorkspaceRepository,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${workspace-summaries.cache.ttl:PT10M}") Duration ttl,
+                                   @Value("${workspace-summaries.cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.workspaceRepository = workspaceRepository;
+        this.userWorkspaceRepository = userWorkspaceRepository;
+        this.eventPublisher = eventPublisher;
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.syncedProfiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * The user's workspaces, creating the user and a default workspace on first sight.
+     */
+    public Summaries bootstrap(String userId, String name, String email, String image) {
+        Profile profile = new Profile(name, email, image);
+        if (!profile.equals(syncedProfiles.getIfPresent(userId))) {
+            syncProfile(userId, profile);
+            syncedProfiles.put(userId, profile);
+        }
+
+        Summaries workspaces = findForUser(userId);
+        if (workspaces.workspaces().isEmpty()) {
+            createDefaultWorkspace(userId);
+            workspaces = findForUser(userId);
+        }
+        return workspaces;
+    }
+
+    public Summaries findForUser(String userId) {
+        return summaries.get(userId, id -> Summaries.of(userWorkspaceRepository.findWorkspaceSummaries(id).stream()
+                .map(row -> new WorkspaceSummary(row.getId(), row.getName(), row.getRole(), row.getMemberCount()))
+                .toList()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        if (event.userId() != null) {
+            summaries.invalidate(event.userId());
+        }
+        evictWorkspace(event.workspaceId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWorkspaceRenamed(WorkspaceRenamedEvent event) {
+        evictWorkspace(event.workspaceId());
+    }
+
+    private void evictWorkspace(Long workspaceId) {
+        summaries.asMap().values().removeIf(cached -> cached.workspaces().stream().anyMatch(summary -> summary.id().equals(workspaceId)));
+    }
+
+    /**
+     * Creates the user if needed and fills in profile fields they are still missing.
+     */
+    private void syncProfile(String userId, Profile profile) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            user = new User();
+            user.setId(userId);
+            user.setName(profile.name());
+            user.setEmail(profile.email());
+            user.setImage(profile.image());
+            userRepository.save(user);
+            return;
+        }
+
+        // If user exists, but details are missing, update them
+        if ((user.getName() == null && profile.name() != null) || (user.getEmail() == null && profile.email() != null)) {
+            user.setName(profile.name());
+            user.setEmail(profile.email());
+            user.setImage(profile.image());
+            userRepository.save(user);
+        }
+    }
+
+    private void createDefaultWorkspace(String userId) {
+        Workspace newWorkspace = new Workspace();
+        newWorkspace.setName(DEFAULT_WORKSPACE_NAME);
+
+        UserWorkspace userWorkspace = new UserWorkspace();
+        userWorkspace.setUser(userRepository.getReferenceById(userId));
+        userWorkspace.setWorkspace(newWorkspace);
+        userWorkspace.setRole(UserRole.ADMINISTRATOR);
+
+        newWorkspace.getUserWorkspaces().add(userWorkspace);
+        Workspace savedWorkspace = workspaceRepository.save(newWorkspace);
+        eventPublisher.publishEvent(new MembershipChangedEvent(savedWorkspace.getId(), userId));
+    }
+}
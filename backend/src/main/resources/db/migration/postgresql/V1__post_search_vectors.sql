@@ -0,0 +1,10 @@
+-- Full-text search columns read by PostSearchService.
+-- Adding a stored generated column rewrites the table under an ACCESS EXCLUSIVE lock.
+-- Give up rather than queue every request on the table behind a long transaction.
+SET LOCAL lock_timeout = '10s';
+
+ALTER TABLE "post" ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(content, ''))) STORED;
+
+ALTER TABLE "comment" ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(text, ''))) STORED;
@@ -0,0 +1,6 @@
+-- Built CONCURRENTLY so posts and comments stay writable; Flyway runs these statements
+-- outside a transaction. A build that fails leaves an INVALID index, which PostSearchService
+-- reports at startup.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_post_search_vector ON "post" USING gin (search_vector);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comment_search_vector ON "comment" USING gin (search_vector);
@@ -0,0 +1,3 @@
+-- pg_trgm backs the substring lookups of UserSearchService. It is a trusted extension, so the
+-- database owner can create it without superuser rights.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,11 @@
+-- Prefix (text_pattern_ops) and substring (pg_trgm) indexes read by UserSearchService.
+-- Built CONCURRENTLY so "user" stays writable; Flyway runs these statements outside a
+-- transaction. A build that fails leaves an INVALID index, which UserSearchService reports
+-- at startup.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_name_prefix ON "user" (lower(name) text_pattern_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_email_prefix ON "user" (lower(email) text_pattern_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_name_trgm ON "user" USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_email_trgm ON "user" USING gin (lower(email) gin_trgm_ops);
@@ -0,0 +1,105 @@
+package com.projectplan.scheduler.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN = Duration.ofSeconds(30).toNanos();
+
+    private final CircuitBreaker breaker = new CircuitBreaker(3, OPEN);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        assertThat(breaker.onFailure(0)).isFalse();
+        assertThat(breaker.onFailure(0)).isFalse();
+        assertThat(breaker.tryAcquire(0)).isTrue();
+
+        assertThat(breaker.onFailure(0)).isTrue();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(1)).isFalse();
+        assertThat(breaker.nanosUntilProbe(1)).isEqualTo(OPEN - 1);
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        breaker.onSuccess();
+
+        assertThat(breaker.onFailure(0)).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void letsOneProbeThroughAfterTheOpenPeriod() {
+        open(0);
+
+        assertThat(breaker.tryAcquire(OPEN)).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire(OPEN)).isFalse();
+    }
+
+    @Test
+    void successfulProbeClosesTheCircuit() {
+        open(0);
+        breaker.tryAcquire(OPEN);
+
+        assertThat(breaker.onSuccess()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire(OPEN)).isTrue();
+        assertThat(breaker.nanosUntilProbe(OPEN)).isZero();
+    }
+
+    @Test
+    void failedProbeOpensTheCircuitAgain() {
+        open(0);
+        breaker.tryAcquire(OPEN);
+
+        assertThat(breaker.onFailure(OPEN + 1)).isTrue();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(2 * OPEN)).isFalse();
+        assertThat(breaker.tryAcquire(2 * OPEN + 1)).isTrue();
+    }
+
+    @Test
+    void lostProbeIsReplacedAfterAnotherOpenPeriod() {
+        open(0);
+        breaker.tryAcquire(OPEN);
+
+        assertThat(breaker.tryAcquire(2 * OPEN - 1)).isFalse();
+        assertThat(breaker.tryAcquire(2 * OPEN)).isTrue();
+    }
+
+    @Test
+    void releasedProbeCanBeTakenAtOnce() {
+        open(0);
+        breaker.tryAcquire(OPEN);
+
+        breaker.releaseProbe(OPEN);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire(OPEN)).isTrue();
+    }
+
+    @Test
+    void lateFailureWhileOpenDoesNotExtendTheOpenPeriod() {
+        open(0);
+
+        assertThat(breaker.onFailure(OPEN - 1)).isFalse();
+
+        assertThat(breaker.tryAcquire(OPEN)).isTrue();
+    }
+
+    private void open(long nowNanos) {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(nowNanos);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.projectplan.scheduler.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+    private static final long NO_WAIT = 0;
+    private static final long ANY_WAIT = Long.MAX_VALUE;
+
+    @Test
+    void freshBucketIsIdle() {
+        for (long now : new long[]{0, 1_000, -5 * SECOND, Long.MIN_VALUE / 2, Long.MAX_VALUE / 2}) {
+            TokenBucket bucket = new TokenBucket(150, Duration.ofHours(24), now);
+
+            assertThat(bucket.nanosUntilIdle(now)).isZero();
+            assertThat(bucket.nanosUntilAvailable(now)).isZero();
+        }
+    }
+
+    @Test
+    void burstsUpToPermitsThenPacesAtEmissionInterval() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(5), 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.reserve(0, NO_WAIT)).isZero();
+        }
+        assertThat(bucket.reserve(0, NO_WAIT)).isEqualTo(-1);
+        assertThat(bucket.nanosUntilAvailable(0)).isEqualTo(SECOND);
+
+        assertThat(bucket.reserve(0, ANY_WAIT)).isEqualTo(SECOND);
+        assertThat(bucket.reserve(0, ANY_WAIT)).isEqualTo(2 * SECOND);
+    }
+
+    @Test
+    void refillsOnePermitPerEmissionInterval() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(5), 0);
+        for (int i = 0; i < 5; i++) {
+            bucket.reserve(0, NO_WAIT);
+        }
+
+        assertThat(bucket.reserve(SECOND, NO_WAIT)).isZero();
+        assertThat(bucket.reserve(SECOND, NO_WAIT)).isEqualTo(-1);
+        assertThat(bucket.nanosUntilIdle(SECOND)).isEqualTo(5 * SECOND);
+        assertThat(bucket.nanosUntilIdle(6 * SECOND)).isZero();
+    }
+
+    @Test
+    void rejectedReservationTakesNoPermit() {
+        TokenBucket bucket = new TokenBucket(1, Duration.ofSeconds(1), 0);
+        bucket.reserve(0, NO_WAIT);
+
+        assertThat(bucket.reserve(0, SECOND / 2)).isEqualTo(-1);
+        assertThat(bucket.reserve(0, SECOND)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void refundReturnsThePermit() {
+        TokenBucket bucket = new TokenBucket(1, Duration.ofSeconds(1), 0);
+        bucket.reserve(0, NO_WAIT);
+
+        bucket.refund();
+
+        assertThat(bucket.reserve(0, NO_WAIT)).isZero();
+    }
+
+    @Test
+    void blockedBucketGrantsNothingBeforeTheBlockEnds() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(5), 0);
+
+        bucket.blockUntil(3 * SECOND);
+
+        assertThat(bucket.reserve(0, NO_WAIT)).isEqualTo(-1);
+        assertThat(bucket.nanosUntilAvailable(0)).isEqualTo(3 * SECOND);
+        assertThat(bucket.nanosUntilIdle(0)).isEqualTo(3 * SECOND);
+        assertThat(bucket.reserve(0, ANY_WAIT)).isEqualTo(3 * SECOND);
+        assertThat(bucket.reserve(3 * SECOND, NO_WAIT)).isZero();
+    }
+
+    @Test
+    void bucketIsFullWhenTheBlockEnds() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(5), 0);
+
+        bucket.blockUntil(3 * SECOND);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.reserve(0, ANY_WAIT)).isEqualTo(3 * SECOND);
+        }
+        assertThat(bucket.reserve(0, ANY_WAIT)).isEqualTo(4 * SECOND);
+    }
+
+    @Test
+    void earlierBlockDoesNotShortenALaterOne() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(5), 0);
+
+        bucket.blockUntil(3 * SECOND);
+        bucket.blockUntil(SECOND);
+
+        assertThat(bucket.nanosUntilAvailable(0)).isEqualTo(3 * SECOND);
+    }
+
+    @Test
+    void bucketIsAvailableOnceTheBlockHasPassed() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(5), 0);
+
+        bucket.blockUntil(SECOND);
+
+        assertThat(bucket.nanosUntilAvailable(2 * SECOND)).isZero();
+        assertThat(bucket.nanosUntilIdle(2 * SECOND)).isZero();
+    }
+}
@@ -1,38 +1,102 @@
 // components/calendar/CalendarView.tsx
+import { useCallback, useEffect, useState } from 'react'
 import { Calendar, momentLocalizer } from 'react-big-calendar'
 import moment from 'moment'
 import 'react-big-calendar/lib/css/react-big-calendar.css'
-import { Post } from '../content/PostCard' // Import your Post type
 
 const localizer = momentLocalizer(moment)
 
+// A lightweight slot as returned by GET /posts/calendar
+export interface CalendarSlot {
+  id: number
+  status: string
+  scheduledAt: string
+  title: string
+  providers: string[]
+}
+
 interface Props {
-  posts: Post[]
+  workspaceId: string
+}
+
+// end is exclusive: the start of the day after the last visible one
+interface Range {
+  start: Date
+  end: Date
 }
 
-export default function CalendarView({ posts }: Props) {
-  // Transform posts into events for the calendar
-  const events = posts
-    .filter(post => post.scheduledAt) // Only show posts that are scheduled
-    .map(post => ({
-      id: post.id,
-      title: post.content.substring(0, 50) + '...', // Show a snippet
-      start: new Date(post.scheduledAt!),
-      end: new Date(post.scheduledAt!),
-      allDay: false,
-      resource: post, // Attach the full post object
-    }))
+const dayAfter = (date: Date | moment.Moment) => moment(date).startOf('day').add(1, 'day').toDate()
+
+// The month grid shows a few days of the neighbouring months too
+const initialRange = (): Range => ({
+  start: moment().startOf('month').startOf('week').toDate(),
+  end: dayAfter(moment().endOf('month').endOf('week')),
+})
+
+// scheduledAt is stored without a zone, so send local date-times
+const toParam = (date: Date) => encodeURIComponent(moment(date).format('YYYY-MM-DDTHH:mm:ss'))
+
+export default function CalendarView({ workspaceId }: Props) {
+  const [range, setRange] = useState<Range>(initialRange)
+  const [slots, setSlots] = useState<CalendarSlot[]>([])
+  const [truncated, setTruncated] = useState(false)
+
+  // Only fetch the posts scheduled in the visible range
+  const fetchSlots = useCallback(async () => {
+    const apiUrl = process.env.NEXT_PUBLIC_API_URL || ''
+    try {
+      const res = await fetch(`${apiUrl}/posts/calendar?workspaceId=${workspaceId}&from=${toParam(range.start)}&to=${toParam(range.end)}`)
+      if (!res.ok) throw new Error('Failed to fetch calendar')
+      const data = await res.json()
+      setSlots(data.slots)
+      setTruncated(data.truncated)
+    } catch (error) {
+      console.error(error)
+    }
+  }, [workspaceId, range])
+
+  useEffect(() => {
+    fetchSlots()
+  }, [fetchSlots])
+
+  // Month view reports { start, end }; week and day views report the list of visible days
+  const handleRangeChange = (newRange: Date[] | { start: Date; end: Date }) => {
+    if (Array.isArray(newRange)) {
+      setRange({
+        start: moment(newRange[0]).startOf('day').toDate(),
+        end: dayAfter(newRange[newRange.length - 1]),
+      })
+    } else {
+      setRange({ start: newRange.start, end: dayAfter(newRange.end) })
+    }
+  }
+
+  // Transform slots into events for the calendar
+  const events = slots.map(slot => ({
+    id: slot.id,
+    title: slot.title + '...', // Show a snippet
+    start: new Date(slot.scheduledAt),
+    end: new Date(slot.scheduledAt),
+    allDay: false,
+    resource: slot, // Attach the slot
+  }))
 
   return (
     <div className="bg-white p-6 rounded-lg shadow-lg" style={{ height: 700 }}>
+      {truncated && (
+        <p className="mb-2 text-sm text-amber-700">
+          Too many posts to show them all here. Switch to the week or day view to see the rest.
+        </p>
+      )}
       <Calendar
         localizer={localizer}
         events={events}
         startAccessor="start"
         endAccessor="end"
+        onRangeChange={handleRangeChange}
         className="aesthetic-calendar"
         // You can add onSelectEvent to open a modal with post details
       />
     </div>
   )
-}
\ No newline at end of file
+}
@@ -36,11 +36,11 @@ interface TargetAccount {
 export interface Post {
   id: number
   content: string
-  status: 'DRAFT' | 'PENDING_APPROVAL' | 'APPROVED' | 'REJECTED' | 'SCHEDULED' | 'PUBLISHED' | 'ARCHIVED'
+  status: 'DRAFT' | 'PENDING_APPROVAL' | 'APPROVED' | 'REJECTED' | 'SCHEDULED' | 'PUBLISHING' | 'PUBLISHED' | 'FAILED' | 'ARCHIVED'
   createdAt: string
   authorId: string
   scheduledAt?: string
-  comments: Comment[]
+  commentCount: number // Comment bodies are loaded on demand from /posts/{id}/comments
   targets: TargetAccount[] // Use the more detailed type
 }
 
@@ -56,6 +56,7 @@ const getStatusStyles = (status: Post['status']) => {
     case 'PENDING_APPROVAL':
       return { bg: 'bg-yellow-100', text: 'text-yellow-800', dot: 'bg-yellow-500' };
     case 'REJECTED':
+    case 'FAILED':
       return { bg: 'bg-red-100', text: 'text-red-800', dot: 'bg-red-500' };
     case 'SCHEDULED':
       return { bg: 'bg-blue-100', text: 'text-blue-800', dot: 'bg-blue-500' };
@@ -70,6 +71,9 @@ export default function PostCard({ post, onPostUpdate }: PostCardProps) {
   const { data: session } = useSession()
   const [currentStatus, setCurrentStatus] = useState(post.status)
   const [showComments, setShowComments] = useState(false)
+  const [comments, setComments] = useState<Comment[] | null>(null)
+  const [commentsCursor, setCommentsCursor] = useState<string | null>(null)
+  const [commentCount, setCommentCount] = useState(post.commentCount)
   const [newComment, setNewComment] = useState('')
   const [isCommenting, setIsCommenting] = useState(false)
   const [isPublishing, setIsPublishing] = useState(false) // For publish button
@@ -86,6 +90,32 @@ export default function PostCard({ post, onPostUpdate }: PostCardProps) {
     setCurrentStatus(post.status);
   }, [post.status]);
 
+  useEffect(() => {
+    setCommentCount(post.commentCount);
+  }, [post.commentCount]);
+
+  // Comments come in pages, oldest first; pass the cursor to append the next page
+  const fetchComments = async (cursor?: string) => {
+    try {
+      const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : ''
+      const res = await fetch(`${apiUrl}/posts/${post.id}/comments${query}`)
+      if (res.ok) {
+        const data: Comment[] = await res.json()
+        setComments(prev => (cursor && prev ? [...prev, ...data] : data))
+        setCommentsCursor(res.headers.get('X-Next-Cursor'))
+      }
+    } catch (error) {
+      console.error('Failed to fetch comments:', error)
+    }
+  }
+
+  const toggleComments = () => {
+    if (!showComments && comments === null) {
+      fetchComments()
+    }
+    setShowComments(!showComments)
+  }
+
   // Check if there are any connected targets for this post
   const hasConnectedTargets = post.targets && post.targets.some(t => t.status === 'CONNECTED');
 
@@ -123,8 +153,13 @@ export default function PostCard({ post, onPostUpdate }: PostCardProps) {
         }),
       })
       if (res.ok) {
+        const created: Comment = await res.json()
         setNewComment('')
-        onPostUpdate() // Refresh the whole post list to get new comment
+        setCommentCount(count => count + 1)
+        // The new comment is the newest, so it belongs at the end once every page is loaded
+        if (comments !== null && !commentsCursor) {
+          setComments([...comments, created])
+        }
       }
     } catch (error) {
       console.error('Failed to post comment:', error)
@@ -228,11 +263,11 @@ export default function PostCard({ post, onPostUpdate }: PostCardProps) {
           <div className="flex items-center justify-between">
             <div className="flex items-center space-x-4">
               <button
-                onClick={() => setShowComments(!showComments)}
+                onClick={toggleComments}
                 className="flex items-center text-gray-600 hover:text-indigo-600"
               >
                 <FiMessageCircle className="w-5 h-5 mr-1" />
-                <span>{post.comments ? post.comments.length : 0} Comments</span>
+                <span>{commentCount} Comments</span>
               </button>
             </div>
             
@@ -282,8 +317,10 @@ export default function PostCard({ post, onPostUpdate }: PostCardProps) {
           <div className="p-6 border-t border-gray-200">
             {/* List of comments */}
             <div className="flex flex-col space-y-4 max-h-60 overflow-y-auto pr-2">
-              {post.comments && post.comments.length > 0 ? (
-                post.comments.map((comment) => (
+              {comments === null ? (
+                <p className="text-sm text-gray-500">Loading comments...</p>
+              ) : comments.length > 0 ? (
+                comments.map((comment) => (
                   <div key={comment.id} className="flex items-start space-x-3">
                     <div className="flex-shrink-0">
                       <div className="w-8 h-8 rounded-full bg-gray-300"></div>
@@ -299,6 +336,15 @@ export default function PostCard({ post, onPostUpdate }: PostCardProps) {
               ) : (
                 <p className="text-sm text-gray-500">Be the first to comment!</p>
               )}
+              {commentsCursor && (
+                <button
+                  type="button"
+                  onClick={() => fetchComments(commentsCursor)}
+                  className="self-start text-sm font-medium text-indigo-600 hover:text-indigo-800"
+                >
+                  Load more comments
+                </button>
+              )}
             </div>
             
             {/* New comment form */}
@@ -0,0 +1,152 @@
+// components/content/PostSearch.tsx
+import React, { useState } from 'react'
+import { FiSearch, FiX } from 'react-icons/fi'
+
+// A match as returned by GET /posts/search
+export interface PostSearchResult {
+  id: number
+  status: string
+  createdAt: string
+  scheduledAt: string | null
+  contentHighlight: string | null
+  commentHighlight: string | null
+}
+
+interface Props {
+  workspaceId: string
+  // Called with true while results are shown, so the page can hide the feed
+  onActiveChange: (active: boolean) => void
+}
+
+// Highlights come back as escaped HTML whose only tags are <mark>; split on them and
+// unescape the text instead of rendering HTML
+function unescapeHtml(text: string) {
+  return text
+    .replace(/&lt;/g, '<')
+    .replace(/&gt;/g, '>')
+    .replace(/&quot;/g, '"')
+    .replace(/&#39;/g, "'")
+    .replace(/&amp;/g, '&')
+}
+
+function Highlight({ text }: { text: string }) {
+  const parts = text.split(/<mark>|<\/mark>/).map(unescapeHtml)
+  return (
+    <>
+      {parts.map((part, i) =>
+        i % 2 === 1 ? <mark key={i} className="bg-yellow-200 rounded px-0.5">{part}</mark> : <span key={i}>{part}</span>
+      )}
+    </>
+  )
+}
+
+export default function PostSearch({ workspaceId, onActiveChange }: Props) {
+  const [query, setQuery] = useState('')
+  const [status, setStatus] = useState('')
+  const [results, setResults] = useState<PostSearchResult[] | null>(null)
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
+  const [isSearching, setIsSearching] = useState(false)
+  const apiUrl = process.env.NEXT_PUBLIC_API_URL || ''
+
+  const search = async (cursor?: string) => {
+    if (query.trim().length < 2) return
+    setIsSearching(true)
+    try {
+      const params = new URLSearchParams({ workspaceId, q: query.trim() })
+      if (status) params.append('status', status)
+      if (cursor) params.append('cursor', cursor)
+      const res = await fetch(`${apiUrl}/posts/search?${params.toString()}`)
+      if (!res.ok) throw new Error('Failed to search posts')
+      const data: PostSearchResult[] = await res.json()
+      setResults(prev => (cursor && prev ? [...prev, ...data] : data))
+      setNextCursor(res.headers.get('X-Next-Cursor'))
+      onActiveChange(true)
+    } catch (error) {
+      console.error(error)
+    } finally {
+      setIsSearching(false)
+    }
+  }
+
+  const clear = () => {
+    setQuery('')
+    setResults(null)
+    setNextCursor(null)
+    onActiveChange(false)
+  }
+
+  return (
+    <div className="mb-6">
+      <form
+        onSubmit={(e) => { e.preventDefault(); search() }}
+        className="flex items-center space-x-2"
+      >
+        <div className="relative flex-grow">
+          <FiSearch className="absolute left-3 top-1/2 -translate-y-1/2 w-4 h-4 text-gray-400" />
+          <input
+            type="text"
+            value={query}
+            onChange={(e) => setQuery(e.target.value)}
+            placeholder="Search posts and comments..."
+            className="w-full pl-9 pr-3 py-2 text-sm border border-gray-300 rounded-lg focus:outline-none focus:ring-2 focus:ring-indigo-500"
+          />
+        </div>
+        <select
+          value={status}
+          onChange={(e) => setStatus(e.target.value)}
+          className="py-2 text-sm border border-gray-300 rounded-lg"
+        >
+          <option value="">Any status</option>
+          <option value="DRAFT">Draft</option>
+          <option value="PENDING_APPROVAL">Pending approval</option>
+          <option value="APPROVED">Approved</option>
+          <option value="SCHEDULED">Scheduled</option>
+          <option value="PUBLISHED">Published</option>
+          <option value="FAILED">Failed</option>
+          <option value="REJECTED">Rejected</option>
+          <option value="ARCHIVED">Archived</option>
+        </select>
+        {results !== null && (
+          <button type="button" onClick={clear} className="p-2 text-gray-500 hover:text-gray-700" title="Clear search">
+            <FiX className="w-5 h-5" />
+          </button>
+        )}
+      </form>
+
+      {results !== null && (
+        <div className="mt-4 space-y-3">
+          {results.length === 0 && !isSearching && (
+            <p className="text-sm text-gray-500">No posts match your search.</p>
+          )}
+          {results.map(result => (
+            <div key={result.id} className="p-4 bg-white rounded-lg shadow">
+              <div className="flex justify-between text-xs text-gray-500 mb-2">
+                <span>{result.status}</span>
+                <span>{new Date(result.createdAt).toLocaleString()}</span>
+              </div>
+              {result.contentHighlight && (
+                <p className="text-sm text-gray-800"><Highlight text={result.contentHighlight} /></p>
+              )}
+              {result.commentHighlight && (
+                <p className="mt-2 text-sm text-gray-600 border-l-2 border-gray-200 pl-3">
+                  <Highlight text={result.commentHighlight} />
+                </p>
+              )}
+            </div>
+          ))}
+          {nextCursor && (
+            <div className="flex justify-center">
+              <button
+                onClick={() => search(nextCursor)}
+                disabled={isSearching}
+                className="px-4 py-2 text-sm font-medium text-indigo-600 bg-white border border-indigo-200 rounded-lg hover:bg-indigo-50 disabled:opacity-50"
+              >
+                {isSearching ? 'Loading...' : 'Load more'}
+              </button>
+            </div>
+          )}
+        </div>
+      )}
+    </div>
+  )
+}
@@ -34,7 +34,7 @@ export default function InviteMemberModal({ isOpen, setIsOpen, onMemberInvited }
       }
       const apiUrl = process.env.NEXT_PUBLIC_API_URL || '';
       try {
-        const res = await fetch(`${apiUrl}/users/search?query=${query}`);
+        const res = await fetch(`${apiUrl}/users/search?query=${encodeURIComponent(query)}&limit=8`);
         if (res.ok) {
           const data = await res.json();
           setSearchResults(data);
@@ -1,13 +1,37 @@
+import { useCallback, useEffect, useState } from 'react';
 import { useWorkspaces, UserWorkspace } from '@/contexts/WorkspaceContext';
 import { useSession } from 'next-auth/react';
 import { FiTrash2 } from 'react-icons/fi';
 import { UserRole } from '@/contexts/WorkspaceContext';
 
-export default function MembersList() {
+interface Props {
+  refreshKey?: number; // Bump to reload the list, e.g. after an invite
+}
+
+export default function MembersList({ refreshKey = 0 }: Props) {
   const { currentWorkspace, currentUserRole, fetchWorkspaces } = useWorkspaces();
   const { data: session } = useSession();
+  const [members, setMembers] = useState<UserWorkspace[]>([]);
   const isAdministrator = currentUserRole === 'ADMINISTRATOR';
 
+  // Members are loaded per workspace; the workspace list only carries summaries
+  const fetchMembers = useCallback(async () => {
+    if (!currentWorkspace) return;
+    const apiUrl = process.env.NEXT_PUBLIC_API_URL || '';
+    try {
+      const res = await fetch(`${apiUrl}/workspaces/${currentWorkspace.id}/members`);
+      if (res.ok) {
+        setMembers(await res.json());
+      }
+    } catch (error) {
+      console.error('Error fetching members:', error);
+    }
+  }, [currentWorkspace]);
+
+  useEffect(() => {
+    fetchMembers();
+  }, [fetchMembers, refreshKey]);
+
   const handleRoleChange = async (memberUserId: string, newRole: UserRole) => {
     const user = session?.user;
     if (!currentWorkspace || !user) return;
@@ -21,7 +45,8 @@ export default function MembersList() {
       });
 
       if (res.ok) {
-        fetchWorkspaces();
+        fetchMembers();
+        fetchWorkspaces(); // Our own role or the member count may have changed
       } else {
         const errorData = await res.json();
         alert(errorData.message || 'Failed to update role.');
@@ -44,7 +69,8 @@ export default function MembersList() {
       });
 
       if (res.ok) {
-        fetchWorkspaces();
+        fetchMembers();
+        fetchWorkspaces(); // Our own role or the member count may have changed
       } else {
         const errorData = await res.json();
         alert(errorData.message || 'Failed to remove member.');
@@ -61,7 +87,7 @@ export default function MembersList() {
 
   return (
     <ul className="divide-y divide-gray-200">
-      {currentWorkspace.userWorkspaces.map((member: UserWorkspace) => (
+      {members.map((member: UserWorkspace) => (
         <li key={member.id} className="py-4 flex items-center justify-between">
           <div className="flex flex-col">
             <p className="text-sm font-medium text-gray-900">{member.user.name || member.user.email}</p>
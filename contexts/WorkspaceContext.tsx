@@ -13,10 +13,12 @@ export interface UserWorkspace {
   role: UserRole;
 }
 
+// Summary returned by GET /workspaces; members come from GET /workspaces/{id}/members
 export interface Workspace {
   id: string;
   name: string;
-  userWorkspaces: UserWorkspace[];
+  role: UserRole;
+  memberCount: number;
 }
 
 interface WorkspaceContextType {
@@ -66,9 +68,7 @@ export function WorkspaceProvider({ children }: { children: ReactNode }) {
           
           setCurrentWorkspace(workspaceToSet);
           localStorage.setItem('currentWorkspaceId', workspaceToSet.id);
-
-          const userWorkspace = workspaceToSet.userWorkspaces.find(uw => uw.user.id === user.id);
-          setCurrentUserRole(userWorkspace ? userWorkspace.role : null);
+          setCurrentUserRole(workspaceToSet.role);
 
         } else {
             setCurrentWorkspace(null);
@@ -100,12 +100,10 @@ export function WorkspaceProvider({ children }: { children: ReactNode }) {
 
   const switchWorkspace = (workspaceId: string) => {
     const workspace = workspaces.find(ws => ws.id === workspaceId);
-    const user = session?.user;
-    if (workspace && user) {
+    if (workspace) {
       setCurrentWorkspace(workspace);
       localStorage.setItem('currentWorkspaceId', workspaceId);
-      const userWorkspace = workspace.userWorkspaces.find(uw => uw.user.id === user.id);
-      setCurrentUserRole(userWorkspace ? userWorkspace.role : null);
+      setCurrentUserRole(workspace.role);
     }
   };
 
@@ -8,20 +8,24 @@ import { useWorkspaces } from '@/contexts/WorkspaceContext';
 
 export default function ArchivePage() {
   const [archivedPosts, setArchivedPosts] = useState<Post[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [isLoading, setIsLoading] = useState(true);
   const { currentWorkspace } = useWorkspaces();
 
-  const fetchArchivedPosts = useCallback(async () => {
+  // Without a cursor this (re)loads the first page; with one it appends the next page
+  const fetchArchivedPosts = useCallback(async (cursor?: string) => {
     if (!currentWorkspace) return;
-    setIsLoading(true);
+    if (!cursor) setIsLoading(true);
     const apiUrl = process.env.NEXT_PUBLIC_API_URL || '';
     try {
+      const cursorParam = cursor ? `&cursor=${encodeURIComponent(cursor)}` : '';
       const res = await fetch(
-        `${apiUrl}/posts/archived?workspaceId=${currentWorkspace.id}`
+        `${apiUrl}/posts/archived?workspaceId=${currentWorkspace.id}${cursorParam}`
       );
       if (res.ok) {
         const data: Post[] = await res.json();
-        setArchivedPosts(data);
+        setArchivedPosts(prev => (cursor ? [...prev, ...data] : data));
+        setNextCursor(res.headers.get('X-Next-Cursor'));
       } else {
         console.error('Failed to fetch archived posts');
       }
@@ -51,12 +55,20 @@ export default function ArchivePage() {
             <ArchivedPostCard
               key={post.id}
               post={post}
-              onUpdate={fetchArchivedPosts}
+              onUpdate={() => fetchArchivedPosts()}
             />
           ))
         ) : (
           <p className="text-gray-500">You have no archived posts.</p>
         )}
+        {!isLoading && nextCursor && (
+          <button
+            onClick={() => fetchArchivedPosts(nextCursor)}
+            className="self-center px-4 py-2 text-sm font-medium text-indigo-600 bg-white border border-indigo-200 rounded-lg hover:bg-indigo-50"
+          >
+            Load more
+          </button>
+        )}
       </div>
     </DashboardLayout>
   );
@@ -3,7 +3,7 @@ import { GetServerSideProps } from 'next'
 import { getSession, useSession } from 'next-auth/react'
 import DashboardLayout from '@/components/layout/DashboardLayout'
 import { Post } from '@/components/content/PostCard'
-import { useState, useEffect, useCallback } from 'react'
+import { useState, useEffect, useCallback, useRef } from 'react'
 import { FiLayout, FiCalendar, FiPlus } from 'react-icons/fi'
 import { useRouter } from 'next/router'
 import { useWorkspaces } from '@/contexts/WorkspaceContext'; // Import workspace context
@@ -11,18 +11,36 @@ import { useWorkspaces } from '@/contexts/WorkspaceContext'; // Import workspace
 // Import the new components
 import CreatePostModal from '@/components/content/CreatePostModal'
 import FeedView from '@/components/content/FeedView'
+import PostSearch from '@/components/content/PostSearch'
 import CalendarView from '@/components/calendar/CalendarView'
 
 type View = 'feed' | 'calendar'
 
+// Response of GET /workspaces/{id}/changes; only the parts the feed uses
+interface WorkspaceChanges {
+  version: number
+  hasMore: boolean
+  posts: Post[]
+  deleted: { type: string; id: string }[]
+}
+
+const newestFirst = (a: Post, b: Post) =>
+  a.createdAt === b.createdAt ? b.id - a.id : (a.createdAt < b.createdAt ? 1 : -1)
+
 export default function Dashboard() {
   const [posts, setPosts] = useState<Post[]>([])
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
   const [isLoading, setIsLoading] = useState(true)
+  const [isLoadingMore, setIsLoadingMore] = useState(false)
   const [view, setView] = useState<View>('feed')
   const [isModalOpen, setIsModalOpen] = useState(false)
+  const [isSearchActive, setIsSearchActive] = useState(false)
   const { data: session } = useSession()
   const router = useRouter()
-  const { currentWorkspace } = useWorkspaces(); // Get current workspace
+  const { currentWorkspace, fetchWorkspaces } = useWorkspaces(); // Get current workspace
+  // Change version the loaded posts are current as of; null until known
+  const syncVersion = useRef<number | null>(null)
+  const nextCursorRef = useRef<string | null>(null)
 
   // Use useCallback to memoize fetchPosts so it can be passed as a prop
   const fetchPosts = useCallback(async () => {
@@ -30,10 +48,14 @@ export default function Dashboard() {
     setIsLoading(true)
     const apiUrl = process.env.NEXT_PUBLIC_API_URL || ''
     try {
+      // Taken before the list, so changes made while it loads are synced afterwards
+      const versionRes = await fetch(`${apiUrl}/workspaces/${currentWorkspace.id}/changes`)
+      syncVersion.current = versionRes.ok ? (await versionRes.json()).version : null
       const res = await fetch(`${apiUrl}/posts?workspaceId=${currentWorkspace.id}`)
       if (!res.ok) throw new Error('Failed to fetch posts')
       const data: Post[] = await res.json()
       setPosts(data)
+      setNextCursor(res.headers.get('X-Next-Cursor'))
     } catch (error) {
       console.error(error)
     } finally {
@@ -41,6 +63,61 @@ export default function Dashboard() {
     }
   }, [currentWorkspace]) // Add currentWorkspace to dependency array
 
+  useEffect(() => {
+    nextCursorRef.current = nextCursor
+  }, [nextCursor])
+
+  // Applies what changed since the loaded version instead of reloading the feed
+  const syncPosts = useCallback(async () => {
+    if (!currentWorkspace) return
+    if (syncVersion.current === null) {
+      await fetchPosts()
+      return
+    }
+    const apiUrl = process.env.NEXT_PUBLIC_API_URL || ''
+    try {
+      let hasMore = true
+      while (hasMore) {
+        const res = await fetch(`${apiUrl}/workspaces/${currentWorkspace.id}/changes?since=${syncVersion.current}`)
+        if (!res.ok) throw new Error('Failed to sync posts')
+        const changes: WorkspaceChanges = await res.json()
+        const changed = new Set(changes.posts.map(post => post.id))
+        const deleted = new Set(changes.deleted.filter(d => d.type === 'post').map(d => Number(d.id)))
+        setPosts(prev => {
+          const oldest = prev[prev.length - 1]
+          const kept = prev.filter(post => !changed.has(post.id) && !deleted.has(post.id))
+          // Archived posts leave the feed; posts older than the loaded pages come with "Load more"
+          const added = changes.posts.filter(post => post.status !== 'ARCHIVED'
+            && (!nextCursorRef.current || !oldest || post.createdAt >= oldest.createdAt))
+          return [...kept, ...added].sort(newestFirst)
+        })
+        syncVersion.current = changes.version
+        hasMore = changes.hasMore
+      }
+    } catch (error) {
+      console.error(error)
+      await fetchPosts()
+    }
+  }, [currentWorkspace, fetchPosts])
+
+  // Posts come in pages; append the next one after the last post we have
+  const loadMorePosts = async () => {
+    if (!currentWorkspace || !nextCursor) return
+    setIsLoadingMore(true)
+    const apiUrl = process.env.NEXT_PUBLIC_API_URL || ''
+    try {
+      const res = await fetch(`${apiUrl}/posts?workspaceId=${currentWorkspace.id}&cursor=${encodeURIComponent(nextCursor)}`)
+      if (!res.ok) throw new Error('Failed to fetch posts')
+      const data: Post[] = await res.json()
+      setPosts(prev => [...prev, ...data])
+      setNextCursor(res.headers.get('X-Next-Cursor'))
+    } catch (error) {
+      console.error(error)
+    } finally {
+      setIsLoadingMore(false)
+    }
+  }
+
   // Fetch posts on initial load
   useEffect(() => {
     if (session && currentWorkspace) { // Only fetch if user is logged in and workspace is selected
@@ -48,6 +125,31 @@ export default function Dashboard() {
     }
   }, [session, fetchPosts, currentWorkspace])
 
+  // Refresh when a teammate or a publish changes something, instead of polling
+  useEffect(() => {
+    if (!session || !currentWorkspace) return
+    const apiUrl = process.env.NEXT_PUBLIC_API_URL || ''
+    const userId = encodeURIComponent(session.user.id)
+    const source = new EventSource(`${apiUrl}/workspaces/${currentWorkspace.id}/events?userId=${userId}`)
+    let timer: ReturnType<typeof setTimeout> | undefined
+    // Bursts (e.g. a bulk publish) collapse into one sync
+    const syncSoon = () => {
+      clearTimeout(timer)
+      timer = setTimeout(syncPosts, 500)
+    }
+    const postEvents = ['post.created', 'post.updated', 'post.deleted', 'posts.updated', 'comment.created']
+    postEvents.forEach(type => source.addEventListener(type, syncSoon))
+    // Channel names are copied into every post's targets, and a resync means events were lost
+    const reloadEvents = ['channel.changed', 'channel.deleted', 'resync']
+    reloadEvents.forEach(type => source.addEventListener(type, fetchPosts))
+    source.addEventListener('membership.changed', fetchWorkspaces)
+    source.addEventListener('workspace.renamed', fetchWorkspaces)
+    return () => {
+      clearTimeout(timer)
+      source.close()
+    }
+  }, [session, currentWorkspace, fetchPosts, syncPosts, fetchWorkspaces])
+
   const channelFilter = Array.isArray(router.query.channel) ? router.query.channel[0] : router.query.channel;
 
   const filteredPosts = channelFilter
@@ -90,15 +192,29 @@ export default function Dashboard() {
 
       {/* Conditionally render the view */}
       <div>
-        {view === 'feed' && (
+        {view === 'feed' && currentWorkspace && (
+          <PostSearch workspaceId={currentWorkspace.id} onActiveChange={setIsSearchActive} />
+        )}
+        {view === 'feed' && !isSearchActive && (
           <FeedView 
             posts={filteredPosts} 
             isLoading={isLoading} 
-            onRefresh={fetchPosts} 
+            onRefresh={syncPosts} 
           />
         )}
-        {view === 'calendar' && (
-          <CalendarView posts={posts} />
+        {view === 'feed' && !isSearchActive && nextCursor && !isLoading && (
+          <div className="flex justify-center mt-6">
+            <button
+              onClick={loadMorePosts}
+              disabled={isLoadingMore}
+              className="px-4 py-2 text-sm font-medium text-indigo-600 bg-white border border-indigo-200 rounded-lg hover:bg-indigo-50 disabled:opacity-50"
+            >
+              {isLoadingMore ? 'Loading...' : 'Load more'}
+            </button>
+          </div>
+        )}
+        {view === 'calendar' && currentWorkspace && (
+          <CalendarView workspaceId={currentWorkspace.id} />
         )}
       </div>
 
@@ -106,7 +222,7 @@ export default function Dashboard() {
       <CreatePostModal
         isOpen={isModalOpen}
         setIsOpen={setIsModalOpen}
-        onPostCreated={fetchPosts} // Pass fetchPosts as the callback
+        onPostCreated={syncPosts}
         preselectedChannelId={channelFilter}
       />
     </DashboardLayout>
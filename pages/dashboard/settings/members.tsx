@@ -12,6 +12,7 @@ export default function MembersPage() {
   const { currentUserRole, fetchWorkspaces } = useWorkspaces();
   const { data: session } = useSession();
   const [isInviteModalOpen, setInviteModalOpen] = useState(false);
+  const [membersVersion, setMembersVersion] = useState(0);
   const isAdministrator = currentUserRole === 'ADMINISTRATOR';
 
   return (
@@ -33,13 +34,14 @@ export default function MembersPage() {
           <p className="text-sm text-gray-600 mb-6">
             Manage who has access to this workspace and what they can do.
           </p>
-          <MembersList />
+          <MembersList refreshKey={membersVersion} />
         </div>
       </SettingsLayout>
       <InviteMemberModal
         isOpen={isInviteModalOpen}
         setIsOpen={setInviteModalOpen}
         onMemberInvited={() => {
+            setMembersVersion(v => v + 1);
             fetchWorkspaces();
         }}
       />
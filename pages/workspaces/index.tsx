@@ -99,8 +99,7 @@ export default function WorkspacesPage() {
             <h3 className="text-sm font-medium text-gray-500">Your Workspaces</h3>
             <ul className="space-y-2">
               {workspaces.map((ws) => {
-                const currentUserWorkspace = ws.userWorkspaces?.find(uw => uw.user.id === session?.user?.id);
-                const isAdministrator = currentUserWorkspace?.role === 'ADMINISTRATOR';
+                const isAdministrator = ws.role === 'ADMINISTRATOR';
 
                 return (
                 <li key={ws.id} className="flex items-center justify-between px-4 py-3 bg-gray-50 rounded-md">